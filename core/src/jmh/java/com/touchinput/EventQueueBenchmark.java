@@ -0,0 +1,80 @@
+package com.touchinput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The reader -> client thread handoff (TouchEventQueue).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+    
+    // One tick's worth of events queued and then drained on the same thread
+    @State(Scope.Thread)
+    public static class Burst {
+        @Param({"1", "16", "256"})
+        public int burst;
+        
+        final TouchEventQueue queue = new TouchEventQueue(new TouchConfig());
+    }
+    
+    @Benchmark
+    public void offerThenDrain(Burst state, Blackhole blackhole) {
+        for (int i = 0; i < state.burst; i++) {
+            state.queue.offer(TouchEvent.button(TouchEventType.RELEASE, 0, i, i, i));
+        }
+        TouchEvent event;
+        while ((event = state.queue.poll()) != null) {
+            blackhole.consume(event);
+        }
+    }
+    
+    // Reader and client thread running concurrently
+    @State(Scope.Group)
+    public static class Shared {
+        // Releases are never dropped, so the producer has to wait for the consumer
+        static final int MAX_PENDING = 1024;
+        
+        final TouchEventQueue queue = new TouchEventQueue(new TouchConfig());
+        final AtomicInteger pending = new AtomicInteger();
+    }
+    
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public void produce(Shared state) {
+        if (state.pending.get() >= Shared.MAX_PENDING) {
+            Thread.onSpinWait();
+            return;
+        }
+        state.queue.offer(TouchEvent.button(TouchEventType.RELEASE, 0, 1, 2, 3));
+        state.pending.incrementAndGet();
+    }
+    
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public TouchEvent consume(Shared state) {
+        TouchEvent event = state.queue.poll();
+        if (event != null) {
+            state.pending.decrementAndGet();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,99 @@
+package com.touchinput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of decoding one evdev frame (all events up to SYN_REPORT) on the reader thread: the
+// decoder, slot tracking and gestures, with the resulting events handed to the client queue.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputEventBenchmark {
+    @Param({"1", "2", "5", "10"})
+    public int fingers;
+    
+    // Report rate of the simulated panel
+    @Param({"120", "240", "1000"})
+    public int eventRateHz;
+    
+    private EvdevDecoder decoder;
+    private TouchEventQueue queue;
+    private SyntheticTouchStream stream;
+    private int frame;
+    
+    @Setup
+    public void setup() {
+        TouchConfig config = new TouchConfig();
+        TouchSlots slots = new TouchSlots(config);
+        queue = new TouchEventQueue(config);
+        GestureRecognizer gestures = new GestureRecognizer(config, new GestureRecognizer.Listener() {
+            @Override
+            public void onButton(long timeMicros, int button, boolean pressed, int x, int y) {
+                queue.offer(TouchEvent.button(pressed ? TouchEventType.PRESS : TouchEventType.RELEASE,
+                    button, x, y, timeMicros));
+            }
+            
+            @Override
+            public void onDragStart(long timeMicros, int fromX, int fromY, int x, int y) {
+                queue.offer(TouchEvent.drag(TouchEventType.DRAG_START, x, y, fromX, fromY, 0, 0, timeMicros));
+            }
+            
+            @Override
+            public void onDragEnd(long timeMicros, int x, int y, double velocityX, double velocityY) {
+                queue.offer(TouchEvent.drag(TouchEventType.DRAG_END, x, y, x, y, velocityX, velocityY, timeMicros));
+            }
+            
+            @Override
+            public void onScroll(long timeMicros, int fromX, int fromY, int toX, int toY) {
+                queue.offer(TouchEvent.scroll(fromX, fromY, toX, toY, timeMicros));
+            }
+            
+            @Override
+            public void onPinch(long timeMicros, int centerX, int centerY, double scale) {
+                queue.offer(TouchEvent.pinch(centerX, centerY, scale, timeMicros));
+            }
+        });
+        decoder = new EvdevDecoder(slots, new PenState(), new EvdevDecoder.FrameListener() {
+            @Override
+            public void onFrame(long timeMicros) {
+                slots.endFrame();
+                gestures.onFrame(timeMicros, slots);
+            }
+            
+            @Override
+            public void onPenFrame(long timeMicros) {
+                // The stream has no pen
+            }
+        });
+        stream = new SyntheticTouchStream(fingers, eventRateHz, 60, 16, config.touchMaxX, config.touchMaxY);
+        frame = 0;
+    }
+    
+    @Benchmark
+    public void handleFrame() {
+        int end = stream.frameStarts[frame + 1];
+        for (int i = stream.frameStarts[frame]; i < end; i++) {
+            decoder.handle(stream.times[i], stream.types[i], stream.codes[i], stream.values[i]);
+        }
+        frame = (frame + 1) % stream.frameCount;
+        
+        // The client drains the queue every frame
+        while (queue.poll() != null) {
+            // Only the reader side is measured
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.touchinput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Touch-to-GUI coordinate mapping, done for every processed touch on the client thread:
+// the config walk (mapCoordinates) against the compiled transform the handler uses.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapCoordinatesBenchmark {
+    private static final int POINTS = 1024;
+    
+    @Param({"NORMAL", "ROTATE_90", "ROTATE_180", "ROTATE_270", "AUTO", "CUSTOM"})
+    public TouchConfig.MappingMode mappingMode;
+    
+    @Param({"2", "3"})
+    public double guiScale;
+    
+    private TouchConfig config;
+    private TouchTransform transform;
+    private final int[] touchX = new int[POINTS];
+    private final int[] touchY = new int[POINTS];
+    private int index;
+    
+    @Setup
+    public void setup() {
+        config = new TouchConfig();
+        config.mappingMode = mappingMode;
+        transform = TouchTransform.compile(config, config.screenWidth, config.screenHeight,
+            config.screenWidth, config.screenHeight, guiScale, 1.0);
+        
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            touchX[i] = random.nextInt(config.touchMaxX + 1);
+            touchY[i] = random.nextInt(config.touchMaxY + 1);
+        }
+    }
+    
+    @Benchmark
+    public int[] mapCoordinates() {
+        index = (index + 1) & (POINTS - 1);
+        return config.mapCoordinates(touchX[index], touchY[index], guiScale);
+    }
+    
+    @Benchmark
+    public int[] compiledTransform() {
+        index = (index + 1) & (POINTS - 1);
+        return transform.toGui(touchX[index], touchY[index]);
+    }
+}
@@ -0,0 +1,91 @@
+package com.touchinput;
+
+// Pre-generated multi-touch (protocol B) event stream, so benchmarks replay realistic
+// input without generating it in the measured code.
+//
+// Every finger touches down, swipes across the panel for framesPerContact frames and
+// lifts, then the cycle repeats. Timestamps advance by 1 / rateHz per frame.
+public class SyntheticTouchStream {
+    static final int EV_SYN = 0x00;
+    static final int EV_KEY = 0x01;
+    static final int EV_ABS = 0x03;
+    static final int SYN_REPORT = 0x00;
+    static final int BTN_TOUCH = 0x14a;
+    static final int ABS_MT_SLOT = 0x2f;
+    static final int ABS_MT_POSITION_X = 0x35;
+    static final int ABS_MT_POSITION_Y = 0x36;
+    static final int ABS_MT_TRACKING_ID = 0x39;
+    
+    public final long[] times;
+    public final int[] types;
+    public final int[] codes;
+    public final int[] values;
+    
+    // frameStarts[i] is the index of the first event of frame i, frameStarts[frameCount] == length
+    public final int[] frameStarts;
+    public final int frameCount;
+    
+    private int length = 0;
+    
+    public SyntheticTouchStream(int fingers, int rateHz, int framesPerContact, int contacts, int maxX, int maxY) {
+        this.frameCount = framesPerContact * contacts;
+        
+        // Worst case per frame: slot + tracking id + x + y per finger, plus BTN_TOUCH and SYN
+        int capacity = frameCount * (fingers * 4 + 2);
+        this.times = new long[capacity];
+        this.types = new int[capacity];
+        this.codes = new int[capacity];
+        this.values = new int[capacity];
+        this.frameStarts = new int[frameCount + 1];
+        
+        long frameMicros = 1_000_000L / rateHz;
+        long time = 1_700_000_000_000_000L;
+        int trackingId = 0;
+        int frame = 0;
+        
+        for (int contact = 0; contact < contacts; contact++) {
+            for (int step = 0; step < framesPerContact; step++) {
+                frameStarts[frame++] = length;
+                boolean first = step == 0;
+                boolean last = step == framesPerContact - 1;
+                double progress = step / (double) Math.max(1, framesPerContact - 1);
+                
+                for (int finger = 0; finger < fingers; finger++) {
+                    add(time, EV_ABS, ABS_MT_SLOT, finger);
+                    if (last) {
+                        add(time, EV_ABS, ABS_MT_TRACKING_ID, -1);
+                        continue;
+                    }
+                    if (first) {
+                        add(time, EV_ABS, ABS_MT_TRACKING_ID, trackingId++);
+                    }
+                    // Fingers spread across the panel, swiping diagonally
+                    int laneX = (int) ((finger + 0.5) / fingers * maxX * 0.5);
+                    add(time, EV_ABS, ABS_MT_POSITION_X, laneX + (int) (progress * maxX * 0.4));
+                    add(time, EV_ABS, ABS_MT_POSITION_Y, (int) ((0.1 + progress * 0.8) * maxY));
+                }
+                
+                if (first) {
+                    add(time, EV_KEY, BTN_TOUCH, 1);
+                } else if (last) {
+                    add(time, EV_KEY, BTN_TOUCH, 0);
+                }
+                add(time, EV_SYN, SYN_REPORT, 0);
+                time += frameMicros;
+            }
+        }
+        frameStarts[frameCount] = length;
+    }
+    
+    private void add(long time, int type, int code, int value) {
+        times[length] = time;
+        types[length] = type;
+        codes[length] = code;
+        values[length] = value;
+        length++;
+    }
+    
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,114 @@
+package com.touchinput;
+
+import java.util.Locale;
+
+// Residual error of the touch mapping per region of the screen, collected by the accuracy test
+// (TouchAccuracyScreen). Each tap adds the distance between where it landed and the target it
+// was aimed at to its cell; means and maxima are kept as running sums, so nothing is stored
+// per tap. Errors are in GUI pixels.
+public class AccuracyGrid {
+    private final int columns;
+    private final int rows;
+    private final int[] counts;
+    private final double[] errorSums;
+    private final double[] errorMaxima;
+    private final double[] offsetXSums;   // Signed, landed minus target
+    private final double[] offsetYSums;
+    private int total = 0;
+    
+    public AccuracyGrid(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.counts = new int[columns * rows];
+        this.errorSums = new double[columns * rows];
+        this.errorMaxima = new double[columns * rows];
+        this.offsetXSums = new double[columns * rows];
+        this.offsetYSums = new double[columns * rows];
+    }
+    
+    public int getColumns() {
+        return columns;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public void add(int column, int row, double offsetX, double offsetY) {
+        int cell = row * columns + column;
+        double error = Math.sqrt(offsetX * offsetX + offsetY * offsetY);
+        counts[cell]++;
+        errorSums[cell] += error;
+        errorMaxima[cell] = Math.max(errorMaxima[cell], error);
+        offsetXSums[cell] += offsetX;
+        offsetYSums[cell] += offsetY;
+        total++;
+    }
+    
+    public int count(int column, int row) {
+        return counts[row * columns + column];
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public double meanError(int column, int row) {
+        int cell = row * columns + column;
+        return counts[cell] > 0 ? errorSums[cell] / counts[cell] : 0;
+    }
+    
+    public double maxError(int column, int row) {
+        return errorMaxima[row * columns + column];
+    }
+    
+    // Average signed offset, the systematic part of the error that a correction can remove
+    public double meanOffsetX(int column, int row) {
+        int cell = row * columns + column;
+        return counts[cell] > 0 ? offsetXSums[cell] / counts[cell] : 0;
+    }
+    
+    public double meanOffsetY(int column, int row) {
+        int cell = row * columns + column;
+        return counts[cell] > 0 ? offsetYSums[cell] / counts[cell] : 0;
+    }
+    
+    public double overallMeanError() {
+        double sum = 0;
+        for (double cellSum : errorSums) {
+            sum += cellSum;
+        }
+        return total > 0 ? sum / total : 0;
+    }
+    
+    public double overallMaxError() {
+        double max = 0;
+        for (double cellMax : errorMaxima) {
+            max = Math.max(max, cellMax);
+        }
+        return max;
+    }
+    
+    // Text table of mean / max error and mean offset per cell, for the log and the export file
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Touch accuracy: %d taps, mean error %.2f px, max %.2f px (GUI pixels)%n",
+            total, overallMeanError(), overallMaxError()));
+        out.append("Per cell, top row first: mean/max error (mean offset x, y)").append(System.lineSeparator());
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) {
+                    out.append(" | ");
+                }
+                if (count(column, row) == 0) {
+                    out.append(String.format(Locale.ROOT, "%24s", "-"));
+                } else {
+                    out.append(String.format(Locale.ROOT, "%5.1f/%5.1f (%+5.1f,%+5.1f)", meanError(column, row),
+                        maxError(column, row), meanOffsetX(column, row), meanOffsetY(column, row)));
+                }
+            }
+            out.append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
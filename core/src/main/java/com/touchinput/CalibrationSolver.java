@@ -0,0 +1,123 @@
+package com.touchinput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// The math behind Auto-Calibrate (TouchCalibrationScreen). Two touches aimed at targets near
+// opposite corners give the panel's orientation against the screen and, for windowed and output
+// mapping, where the game window sits. Results are written into the config.
+public final class CalibrationSolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchCalibration");
+    
+    private CalibrationSolver() {
+    }
+    
+    // Swap and inversion from the raw touches against the screen positions they landed on,
+    // and the mapping mode that matches them
+    public static void solveOrientation(TouchConfig config, int[] topLeftTouch, int[] bottomRightTouch,
+                                        int[] topLeftScreen, int[] bottomRightScreen) {
+        // Calculate deltas
+        int screenDeltaX = bottomRightScreen[0] - topLeftScreen[0];
+        int screenDeltaY = bottomRightScreen[1] - topLeftScreen[1];
+        int touchDeltaX = bottomRightTouch[0] - topLeftTouch[0];
+        int touchDeltaY = bottomRightTouch[1] - topLeftTouch[1];
+        
+        LOGGER.info("Calibration Analysis:");
+        LOGGER.info("  Screen positions: TL({}, {}) BR({}, {})",
+            topLeftScreen[0], topLeftScreen[1], bottomRightScreen[0], bottomRightScreen[1]);
+        LOGGER.info("  Touch positions: TL({}, {}) BR({}, {})",
+            topLeftTouch[0], topLeftTouch[1], bottomRightTouch[0], bottomRightTouch[1]);
+        LOGGER.info("  Screen Delta: ({}, {})", screenDeltaX, screenDeltaY);
+        LOGGER.info("  Touch Delta: ({}, {})", touchDeltaX, touchDeltaY);
+        
+        // Get absolute deltas to determine if axes are swapped
+        int absTouchDeltaX = Math. abs(touchDeltaX);
+        int absTouchDeltaY = Math.abs(touchDeltaY);
+        int absScreenDeltaX = Math. abs(screenDeltaX);
+        int absScreenDeltaY = Math.abs(screenDeltaY);
+        
+        // Determine if axes need to be swapped
+        // If touch X moves more than Y but screen X moves less than Y, axes are swapped
+        boolean axesSwapped = (absTouchDeltaX > absTouchDeltaY) != (absScreenDeltaX > absScreenDeltaY);
+        
+        config.swapXY = axesSwapped;
+        
+        // Determine inversions based on sign matching
+        // If touch and screen move in opposite directions on same axis, invert
+        if (axesSwapped) {
+            // X maps to Y, Y maps to X. invertX/invertY flip the touch axes before the swap
+            // (TouchConfig.mapNormalized), so each is judged against the screen axis it ends up on.
+            config.invertY = (touchDeltaY > 0) == (screenDeltaX < 0);  // touch Y vs screen X
+            config.invertX = (touchDeltaX > 0) == (screenDeltaY < 0);  // touch X vs screen Y
+        } else {
+            // Direct mapping
+            config.invertX = (touchDeltaX > 0) == (screenDeltaX < 0);
+            config.invertY = (touchDeltaY > 0) == (screenDeltaY < 0);
+        }
+        
+        // Determine best mapping mode
+        if (! axesSwapped) {
+            if (! config.invertX && !config. invertY) {
+                config.mappingMode = TouchConfig.MappingMode.NORMAL;
+            } else if (config.invertX && config.invertY) {
+                config.mappingMode = TouchConfig. MappingMode.ROTATE_180;
+            } else {
+                config.mappingMode = TouchConfig.MappingMode. CUSTOM;
+            }
+        } else {
+            config.mappingMode = TouchConfig.MappingMode.CUSTOM;
+        }
+        
+        LOGGER.info("Calibration Result:");
+        LOGGER.info("  Mapping Mode: {}", config.mappingMode. getDisplayName());
+        LOGGER.info("  Swap XY: {}", config.swapXY);
+        LOGGER.info("  Invert X: {}", config.invertX);
+        LOGGER.info("  Invert Y: {}", config.invertY);
+    }
+    
+    // Windowed mapping: where the two touches landed on the panel, against where the targets
+    // were drawn (in GUI pixels), gives the window's position and the panel pixels per GUI
+    // pixel. windowPerGui is the window's own pixels per GUI pixel. False if the touches don't
+    // span the window, the placement is then left alone.
+    public static boolean solveWindowPlacement(TouchConfig config, int[] topLeftTouch, int[] bottomRightTouch,
+                                               int targetLeft, int targetTop, int targetRight, int targetBottom,
+                                               double windowPerGui) {
+        double[] topLeft = new double[2];
+        double[] bottomRight = new double[2];
+        config.mapNormalized(topLeftTouch[0], topLeftTouch[1], topLeft);
+        config.mapNormalized(bottomRightTouch[0], bottomRightTouch[1], bottomRight);
+        
+        double panelPerGuiX = (bottomRight[0] - topLeft[0]) * config.screenWidth / (targetRight - targetLeft);
+        double panelPerGuiY = (bottomRight[1] - topLeft[1]) * config.screenHeight / (targetBottom - targetTop);
+        if (!(panelPerGuiX > 0) || !(panelPerGuiY > 0)) {
+            LOGGER.warn("Calibration touches don't span the window, keeping window placement");
+            return false;
+        }
+        config.windowX = (int) Math.round(topLeft[0] * config.screenWidth - targetLeft * panelPerGuiX);
+        config.windowY = (int) Math.round(topLeft[1] * config.screenHeight - targetTop * panelPerGuiY);
+        
+        // Panel pixels per GUI pixel = system scale * window pixels per GUI pixel
+        config.autoDetectSystemScale = false;
+        config.manualSystemScale = (panelPerGuiX + panelPerGuiY) / 2.0 / windowPerGui;
+        
+        LOGGER.info("  Window at ({}, {}), system scale {}", config.windowX, config.windowY, config.manualSystemScale);
+        return true;
+    }
+    
+    // Output mapping: the same, but the touch is placed on the desktop through the panel's
+    // output rectangle, and the window is placed in desktop pixels. The window's size on the
+    // desktop is known (its cursor size), so only its position is measured. windowPerGui is
+    // desktop (cursor) pixels per GUI pixel.
+    public static void solveDesktopPlacement(TouchConfig config, int[] topLeftTouch, int targetLeft, int targetTop,
+                                             double windowPerGui, double systemScale) {
+        double[] topLeft = new double[2];
+        config.mapNormalized(topLeftTouch[0], topLeftTouch[1], topLeft);
+        
+        double outputWidth = config.outputWidth > 0 ? config.outputWidth : config.screenWidth / systemScale;
+        double outputHeight = config.outputHeight > 0 ? config.outputHeight : config.screenHeight / systemScale;
+        config.windowX = (int) Math.round(config.outputX + topLeft[0] * outputWidth - targetLeft * windowPerGui);
+        config.windowY = (int) Math.round(config.outputY + topLeft[1] * outputHeight - targetTop * windowPerGui);
+        
+        LOGGER.info("  Window at ({}, {}) on the desktop", config.windowX, config.windowY);
+    }
+}
@@ -0,0 +1,104 @@
+package com.touchinput;
+
+import java.util.Arrays;
+
+// Coarse per-region correction for digitizers whose error varies across the panel (cheap
+// panels are often off by a few pixels at the edges). Offsets are measured by the accuracy test
+// (TouchAccuracyScreen) at columns x rows evenly spaced nodes spanning left..right, top..bottom,
+// and are bilinearly interpolated in between; outside the span the edge nodes hold. Positions
+// and offsets are fractions of the screen, the space TouchConfig.mapNormalized maps into.
+//
+// Never modified once built, so the config, the profiles and compiled transforms share one.
+public final class CorrectionGrid {
+    private int columns;
+    private int rows;
+    private double left;
+    private double top;
+    private double right;
+    private double bottom;
+    private double[] offsetX;   // Node (column, row) is at row * columns + column
+    private double[] offsetY;
+    
+    private CorrectionGrid() {
+        // For Gson
+    }
+    
+    public CorrectionGrid(int columns, int rows, double left, double top, double right, double bottom,
+                          double[] offsetX, double[] offsetY) {
+        this.columns = columns;
+        this.rows = rows;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.offsetX = offsetX.clone();
+        this.offsetY = offsetY.clone();
+    }
+    
+    public int getColumns() {
+        return columns;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    // Where node (column, row) sits, as a screen fraction
+    public double nodeX(int column) {
+        return left + (right - left) * column / (columns - 1);
+    }
+    
+    public double nodeY(int row) {
+        return top + (bottom - top) * row / (rows - 1);
+    }
+    
+    // Offset to add at a screen position. Constant cost: one cell lookup and four nodes.
+    public double sampleX(double x, double y) {
+        return sample(offsetX, x, y);
+    }
+    
+    public double sampleY(double x, double y) {
+        return sample(offsetY, x, y);
+    }
+    
+    private double sample(double[] offsets, double x, double y) {
+        double u = Math.max(0, Math.min(columns - 1, (x - left) / (right - left) * (columns - 1)));
+        double v = Math.max(0, Math.min(rows - 1, (y - top) / (bottom - top) * (rows - 1)));
+        int column = Math.min((int) u, columns - 2);
+        int row = Math.min((int) v, rows - 2);
+        double s = u - column;
+        double t = v - row;
+        int node = row * columns + column;
+        double upper = offsets[node] + (offsets[node + 1] - offsets[node]) * s;
+        double lower = offsets[node + columns] + (offsets[node + columns + 1] - offsets[node + columns]) * s;
+        return upper + (lower - upper) * t;
+    }
+    
+    // True if both are the same correction (both null counts); a grid read back from the config
+    // file is a new object with the same values
+    public static boolean same(CorrectionGrid a, CorrectionGrid b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        return a.columns == b.columns && a.rows == b.rows
+            && a.left == b.left && a.top == b.top && a.right == b.right && a.bottom == b.bottom
+            && Arrays.equals(a.offsetX, b.offsetX) && Arrays.equals(a.offsetY, b.offsetY);
+    }
+    
+    // Null if the grid is usable
+    public String validate() {
+        if (columns < 2 || rows < 2) return "correction grid needs at least 2x2 nodes";
+        if (offsetX == null || offsetY == null
+                || offsetX.length != columns * rows || offsetY.length != columns * rows) {
+            return "correction grid offsets don't match its size";
+        }
+        if (!(right > left) || !(bottom > top)) return "correction grid must span a non-empty area";
+        for (int i = 0; i < offsetX.length; i++) {
+            if (!Double.isFinite(offsetX[i]) || !Double.isFinite(offsetY[i])) return "correction grid offsets must be numbers";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.touchinput;
+
+// The settings that belong to one touch device rather than to the player: its range,
+// orientation, the screen it sits on (and where that screen is on the desktop) and its palm
+// thresholds. Stored in TouchConfig.profiles keyed by TouchDeviceInfo.getKey().
+public class DeviceProfile {
+    public String name = "";
+    public String devicePath = "";     // Where the device was last seen
+    
+    public boolean autoDetectTouchResolution = true;
+    public int touchMaxX = 1599;
+    public int touchMaxY = 2559;
+    public boolean autoDetectScreenResolution = true;
+    public int screenWidth = 2560;
+    public int screenHeight = 1600;
+    public TouchConfig.MappingMode mappingMode = TouchConfig.MappingMode.AUTO;
+    public boolean swapXY = true;
+    public boolean invertX = false;
+    public boolean invertY = true;
+    public boolean windowedMapping = false;
+    public int windowX = 0;
+    public int windowY = 0;
+    public boolean outputMapping = false;
+    public int outputX = 0;
+    public int outputY = 0;
+    public int outputWidth = 0;
+    public int outputHeight = 0;
+    public CorrectionGrid correction = null;   // Shared, never modified
+    public int palmMaxTouchMajor = 0;
+    public int palmMinPressure = 0;
+    
+    // Takes the device settings currently in effect (not the path, see TouchConfig.useDevice)
+    public void copyFrom(TouchConfig config) {
+        this.autoDetectTouchResolution = config.autoDetectTouchResolution;
+        this.touchMaxX = config.touchMaxX;
+        this.touchMaxY = config.touchMaxY;
+        this.autoDetectScreenResolution = config.autoDetectScreenResolution;
+        this.screenWidth = config.screenWidth;
+        this.screenHeight = config.screenHeight;
+        this.mappingMode = config.mappingMode;
+        this.swapXY = config.swapXY;
+        this.invertX = config.invertX;
+        this.invertY = config.invertY;
+        this.windowedMapping = config.windowedMapping;
+        this.windowX = config.windowX;
+        this.windowY = config.windowY;
+        this.outputMapping = config.outputMapping;
+        this.outputX = config.outputX;
+        this.outputY = config.outputY;
+        this.outputWidth = config.outputWidth;
+        this.outputHeight = config.outputHeight;
+        this.correction = config.correction;
+        this.palmMaxTouchMajor = config.palmMaxTouchMajor;
+        this.palmMinPressure = config.palmMinPressure;
+    }
+    
+    // Puts this profile's settings in effect; the device path is left to the caller
+    public void applyTo(TouchConfig config) {
+        config.autoDetectTouchResolution = this.autoDetectTouchResolution;
+        config.touchMaxX = this.touchMaxX;
+        config.touchMaxY = this.touchMaxY;
+        config.autoDetectScreenResolution = this.autoDetectScreenResolution;
+        config.screenWidth = this.screenWidth;
+        config.screenHeight = this.screenHeight;
+        config.mappingMode = this.mappingMode;
+        config.swapXY = this.swapXY;
+        config.invertX = this.invertX;
+        config.invertY = this.invertY;
+        config.windowedMapping = this.windowedMapping;
+        config.windowX = this.windowX;
+        config.windowY = this.windowY;
+        config.outputMapping = this.outputMapping;
+        config.outputX = this.outputX;
+        config.outputY = this.outputY;
+        config.outputWidth = this.outputWidth;
+        config.outputHeight = this.outputHeight;
+        config.correction = this.correction;
+        config.palmMaxTouchMajor = this.palmMaxTouchMajor;
+        config.palmMinPressure = this.palmMinPressure;
+    }
+    
+    public DeviceProfile copy() {
+        DeviceProfile copy = new DeviceProfile();
+        copy.name = this.name;
+        copy.devicePath = this.devicePath;
+        copy.autoDetectTouchResolution = this.autoDetectTouchResolution;
+        copy.touchMaxX = this.touchMaxX;
+        copy.touchMaxY = this.touchMaxY;
+        copy.autoDetectScreenResolution = this.autoDetectScreenResolution;
+        copy.screenWidth = this.screenWidth;
+        copy.screenHeight = this.screenHeight;
+        copy.mappingMode = this.mappingMode;
+        copy.swapXY = this.swapXY;
+        copy.invertX = this.invertX;
+        copy.invertY = this.invertY;
+        copy.windowedMapping = this.windowedMapping;
+        copy.windowX = this.windowX;
+        copy.windowY = this.windowY;
+        copy.outputMapping = this.outputMapping;
+        copy.outputX = this.outputX;
+        copy.outputY = this.outputY;
+        copy.outputWidth = this.outputWidth;
+        copy.outputHeight = this.outputHeight;
+        copy.correction = this.correction;
+        copy.palmMaxTouchMajor = this.palmMaxTouchMajor;
+        copy.palmMinPressure = this.palmMinPressure;
+        return copy;
+    }
+    
+    // True if both map touches to the screen the same way (TouchTransform.compile reads these).
+    // Either may be null, a profile that doesn't exist.
+    public static boolean sameMapping(DeviceProfile a, DeviceProfile b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.touchMaxX == b.touchMaxX && a.touchMaxY == b.touchMaxY
+            && a.screenWidth == b.screenWidth && a.screenHeight == b.screenHeight
+            && a.mappingMode == b.mappingMode && a.swapXY == b.swapXY
+            && a.invertX == b.invertX && a.invertY == b.invertY
+            && a.windowedMapping == b.windowedMapping && a.windowX == b.windowX && a.windowY == b.windowY
+            && a.outputMapping == b.outputMapping && a.outputX == b.outputX && a.outputY == b.outputY
+            && a.outputWidth == b.outputWidth && a.outputHeight == b.outputHeight
+            && CorrectionGrid.same(a.correction, b.correction);
+    }
+    
+    // Null if the profile is usable
+    public String validate() {
+        if (mappingMode == null) return "mappingMode is missing or unknown";
+        if (touchMaxX <= 0 || touchMaxY <= 0) return "touchMaxX/touchMaxY must be positive";
+        if (screenWidth <= 0 || screenHeight <= 0) return "screenWidth/screenHeight must be positive";
+        if (outputWidth < 0 || outputHeight < 0) return "outputWidth/outputHeight must not be negative";
+        if (correction != null && correction.validate() != null) return correction.validate();
+        if (palmMaxTouchMajor < 0 || palmMinPressure < 0) return "palm rejection thresholds must not be negative";
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.touchinput;
+
+// Decodes a touchscreen's evdev events into per-slot contacts (TouchSlots) and stylus state
+// (PenState). Fingers use multitouch protocol B: ABS_MT_SLOT selects the contact the following
+// values belong to, and SYN_REPORT ends the frame. A frame is only acted on once it is complete,
+// through the listener; a contact's position arrives after its tracking id.
+//
+// Reader thread only. The device reader, capture replay and the touch socket all feed it.
+public class EvdevDecoder {
+    // Event codes from linux/input-event-codes.h
+    static final int EV_SYN = 0x00;
+    static final int EV_KEY = 0x01;
+    static final int EV_ABS = 0x03;
+    static final int ABS_MT_SLOT = 0x2f;
+    static final int ABS_MT_POSITION_X = 0x35;
+    static final int ABS_MT_POSITION_Y = 0x36;
+    static final int ABS_MT_TRACKING_ID = 0x39;
+    static final int ABS_MT_TOUCH_MAJOR = 0x30;
+    static final int ABS_MT_TOOL_TYPE = 0x37;
+    static final int ABS_MT_PRESSURE = 0x3a;
+    static final int BTN_TOUCH = 0x14a;
+    static final int ABS_X = 0x00;
+    static final int ABS_Y = 0x01;
+    static final int ABS_PRESSURE = 0x18;
+    static final int ABS_TILT_X = 0x1a;
+    static final int ABS_TILT_Y = 0x1b;
+    static final int BTN_TOOL_PEN = 0x140;
+    static final int BTN_STYLUS = 0x14b;
+    static final int SYN_REPORT = 0x00;
+    
+    // struct input_event on 64-bit: timeval (16 bytes) + type (2) + code (2) + value (4)
+    public static final int EVENT_SIZE = 24;
+    
+    public interface FrameListener {
+        // A finger frame is complete, the slots hold its contacts
+        void onFrame(long timeMicros);
+        
+        // A pen frame is complete (the pen is near the screen, or just left)
+        void onPenFrame(long timeMicros);
+    }
+    
+    private final TouchSlots slots;
+    private final PenState pen;
+    private final FrameListener listener;
+    
+    public EvdevDecoder(TouchSlots slots, PenState pen, FrameListener listener) {
+        this.slots = slots;
+        this.pen = pen;
+        this.listener = listener;
+    }
+    
+    // timeMicros is the kernel event time (socket frames may use their own clock)
+    public void handle(long timeMicros, int type, int code, int value) {
+        if (type == EV_ABS) {
+            if (code == ABS_MT_SLOT) {
+                slots.selectSlot(value);
+            } else if (code == ABS_MT_POSITION_X) {
+                slots.setX(value);
+            } else if (code == ABS_MT_POSITION_Y) {
+                slots.setY(value);
+            } else if (code == ABS_MT_TRACKING_ID) {
+                slots.setTrackingId(value);
+            } else if (code == ABS_MT_TOUCH_MAJOR) {
+                slots.setTouchMajor(value);
+            } else if (code == ABS_MT_PRESSURE) {
+                slots.setPressure(value);
+            } else if (code == ABS_MT_TOOL_TYPE) {
+                slots.setToolType(value);
+            } else if (code == ABS_X) {
+                pen.setX(value);
+            } else if (code == ABS_Y) {
+                pen.setY(value);
+            } else if (code == ABS_PRESSURE) {
+                pen.setPressure(value);
+            } else if (code == ABS_TILT_X) {
+                pen.setTiltX(value);
+            } else if (code == ABS_TILT_Y) {
+                pen.setTiltY(value);
+            }
+        } else if (type == EV_KEY && code == BTN_TOUCH) {
+            if (pen.isInRange()) {
+                // The pen tip, not a finger
+                pen.setTouching(value != 0);
+            } else if (value == 1) {
+                slots.setTouching(true);
+            } else if (value == 0) {
+                slots.setTouching(false);
+            }
+        } else if (type == EV_KEY && code == BTN_TOOL_PEN) {
+            pen.setInRange(value != 0);
+        } else if (type == EV_KEY && code == BTN_STYLUS) {
+            pen.setBarrel(value != 0);
+        } else if (isFrameEnd(type, code)) {
+            if (pen.isPenFrame()) {
+                listener.onPenFrame(timeMicros);
+            } else {
+                listener.onFrame(timeMicros);
+            }
+        }
+    }
+    
+    public static boolean isFrameEnd(int type, int code) {
+        return type == EV_SYN && code == SYN_REPORT;
+    }
+    
+    // Called before a new stream of events (device opened, replay started)
+    public void reset() {
+        slots.reset();
+        pen.reset();
+    }
+}
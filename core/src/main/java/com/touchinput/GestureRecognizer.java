@@ -0,0 +1,324 @@
+package com.touchinput;
+
+// Turns per-frame touch state into mouse-like actions. Runs on the reader thread once per
+// SYN_REPORT and allocates nothing; long-press timeouts are also polled from the client
+// thread (a finger holding still produces no events), hence the synchronized methods.
+//
+//   one finger, tap                  -> left click
+//   one finger, moved past tapSlop   -> drag (left press, or touch scrolling on the client)
+//   one finger, held for longPressMs -> right button (button 1) until lifted
+//   tap shortly after a tap          -> left press sent on touch down (vanilla sees a double-click)
+//   two fingers, tap                 -> right click
+//   two fingers, moved together      -> scroll
+//   two fingers, spread changed      -> pinch action (TouchConfig.pinchAction)
+//
+// With multiPointerEnabled only the primary finger is seen here, so there are no two-finger
+// gestures.
+//
+// All positions are raw touch coordinates; mapping happens on the client thread.
+public class GestureRecognizer {
+    public static final int BUTTON_LEFT = 0;
+    public static final int BUTTON_RIGHT = 1;
+    public static final int BUTTON_MIDDLE = 2;
+    
+    // Velocity averaging window, and how long a finger may rest before lifting and still fling
+    private static final long VELOCITY_WINDOW_MICROS = 50_000;
+    private static final long FLING_TIMEOUT_MICROS = 80_000;
+    
+    public interface Listener {
+        void onButton(long timeMicros, int button, boolean pressed, int x, int y);
+        
+        // One finger moved past tapSlop; fromX/fromY is where it landed
+        void onDragStart(long timeMicros, int fromX, int fromY, int x, int y);
+        
+        // Velocity in touch units per second at the moment the finger lifted
+        void onDragEnd(long timeMicros, int x, int y, double velocityX, double velocityY);
+        
+        // Two-finger drag between two centroid positions
+        void onScroll(long timeMicros, int fromX, int fromY, int toX, int toY);
+        
+        // scale is the finger spread relative to the previous pinch event
+        void onPinch(long timeMicros, int centerX, int centerY, double scale);
+    }
+    
+    private enum State {
+        IDLE,
+        PENDING,          // one finger down, not yet a tap, drag or long-press
+        DRAGGING,         // one finger dragging
+        HELD,             // heldButton pressed (long-press, second tap of a double-tap)
+        TWO_FINGER,       // two fingers down, not yet a tap, scroll or pinch
+        SCROLLING,
+        PINCHING,
+        WAIT_FOR_UP       // gesture finished, ignore fingers until all are lifted
+    }
+    
+    private final TouchConfig config;
+    private final Listener listener;
+    
+    private State state = State.IDLE;
+    private long downMicros;
+    private int downX;
+    private int downY;
+    private int heldButton;
+    
+    // Drag velocity from kernel timestamps, in touch units per second
+    private long lastMoveMicros;
+    private double velocityX;
+    private double velocityY;
+    
+    // Last completed tap, for double-tap detection
+    private long lastTapMicros = Long.MIN_VALUE;
+    private int lastTapX;
+    private int lastTapY;
+    
+    // Two-finger tracking
+    private int lastCenterX;
+    private int lastCenterY;
+    private int startCenterX;
+    private int startCenterY;
+    private double startSpread;
+    private double lastSpread;
+    private boolean pinchButtonDown = false;
+    
+    // Device time estimate for timeouts between frames
+    private long lastFrameMicros;
+    private long lastFrameNanos;
+    
+    public GestureRecognizer(TouchConfig config, Listener listener) {
+        this.config = config;
+        this.listener = listener;
+    }
+    
+    public synchronized void reset() {
+        state = State.IDLE;
+        pinchButtonDown = false;
+        lastTapMicros = Long.MIN_VALUE;
+    }
+    
+    public synchronized void onFrame(long timeMicros, TouchSlots slots) {
+        lastFrameMicros = timeMicros;
+        lastFrameNanos = System.nanoTime();
+        
+        int primary = slots.primarySlot();
+        // With multi-pointer dispatch the other fingers are pointers of their own (TouchPointers)
+        int count = config.multiPointerEnabled ? (primary >= 0 ? 1 : 0) : slots.activeCount();
+        
+        switch (state) {
+            case IDLE:
+                if (count == 0) break;
+                if (primary < 0 || count > 1) {
+                    // Several fingers landed in the same frame
+                    startTwoFinger(timeMicros, slots);
+                    break;
+                }
+                downMicros = timeMicros;
+                downX = slots.x(primary);
+                downY = slots.y(primary);
+                if (timeMicros - lastTapMicros <= config.doubleTapMs * 1000L
+                        && withinSlop(downX, downY, lastTapX, lastTapY)) {
+                    // Second tap of a double-tap: press right away so the two clicks
+                    // reach the screen as close together as the taps were
+                    lastTapMicros = Long.MIN_VALUE;
+                    listener.onButton(timeMicros, BUTTON_LEFT, true, downX, downY);
+                    heldButton = BUTTON_LEFT;
+                    state = State.HELD;
+                } else {
+                    state = State.PENDING;
+                }
+                break;
+            
+            case PENDING:
+                if (count == 0) {
+                    // Tap
+                    listener.onButton(timeMicros, BUTTON_LEFT, true, downX, downY);
+                    listener.onButton(timeMicros, BUTTON_LEFT, false, downX, downY);
+                    lastTapMicros = timeMicros;
+                    lastTapX = downX;
+                    lastTapY = downY;
+                    state = State.IDLE;
+                } else if (count > 1) {
+                    startTwoFinger(timeMicros, slots);
+                } else if (primary >= 0 && !withinSlop(slots.x(primary), slots.y(primary), downX, downY)) {
+                    listener.onDragStart(timeMicros, downX, downY, slots.x(primary), slots.y(primary));
+                    startDrag(timeMicros, slots.x(primary), slots.y(primary));
+                } else {
+                    checkLongPress(timeMicros);
+                }
+                break;
+            
+            case DRAGGING:
+                if (primary < 0) {
+                    // A finger that stopped before lifting doesn't fling
+                    boolean moving = timeMicros - lastMoveMicros <= FLING_TIMEOUT_MICROS;
+                    listener.onDragEnd(timeMicros, downX, downY, moving ? velocityX : 0, moving ? velocityY : 0);
+                    state = count == 0 ? State.IDLE : State.WAIT_FOR_UP;
+                } else {
+                    trackDrag(timeMicros, slots.x(primary), slots.y(primary));
+                }
+                break;
+                
+            case HELD:
+                if (primary < 0) {
+                    // Release where the finger was last seen
+                    listener.onButton(timeMicros, heldButton, false, downX, downY);
+                    state = count == 0 ? State.IDLE : State.WAIT_FOR_UP;
+                } else {
+                    downX = slots.x(primary);
+                    downY = slots.y(primary);
+                }
+                break;
+            
+            case TWO_FINGER:
+                if (count < 2) {
+                    if (timeMicros - downMicros <= config.twoFingerTapMs * 1000L) {
+                        listener.onButton(timeMicros, BUTTON_RIGHT, true, startCenterX, startCenterY);
+                        listener.onButton(timeMicros, BUTTON_RIGHT, false, startCenterX, startCenterY);
+                    }
+                    state = count == 0 ? State.IDLE : State.WAIT_FOR_UP;
+                    break;
+                }
+                updateTwoFinger(timeMicros, slots);
+                break;
+            
+            case SCROLLING:
+            case PINCHING:
+                if (count < 2) {
+                    if (pinchButtonDown) {
+                        listener.onButton(timeMicros, BUTTON_MIDDLE, false, lastCenterX, lastCenterY);
+                        pinchButtonDown = false;
+                    }
+                    state = count == 0 ? State.IDLE : State.WAIT_FOR_UP;
+                    break;
+                }
+                updateTwoFinger(timeMicros, slots);
+                break;
+            
+            case WAIT_FOR_UP:
+                if (count == 0) state = State.IDLE;
+                break;
+        }
+    }
+    
+    // Ends the current gesture without completing it (no tap, no fling): anything pressed is
+    // released and the remaining fingers are ignored until they lift
+    public synchronized void cancel(long timeMicros, TouchSlots slots) {
+        switch (state) {
+            case DRAGGING:
+                listener.onDragEnd(timeMicros, downX, downY, 0, 0);
+                break;
+            case HELD:
+                listener.onButton(timeMicros, heldButton, false, downX, downY);
+                break;
+            case SCROLLING:
+            case PINCHING:
+                if (pinchButtonDown) {
+                    listener.onButton(timeMicros, BUTTON_MIDDLE, false, lastCenterX, lastCenterY);
+                    pinchButtonDown = false;
+                }
+                break;
+            default:
+                break;
+        }
+        lastTapMicros = Long.MIN_VALUE;
+        state = slots.activeCount() == 0 ? State.IDLE : State.WAIT_FOR_UP;
+    }
+    
+    // Called from the client thread; fires a long-press even if the device is silent
+    public synchronized void pollTimeouts() {
+        if (state == State.PENDING) {
+            long nowMicros = lastFrameMicros + (System.nanoTime() - lastFrameNanos) / 1000L;
+            checkLongPress(nowMicros);
+        }
+    }
+    
+    private void checkLongPress(long nowMicros) {
+        if (nowMicros - downMicros >= config.longPressMs * 1000L) {
+            listener.onButton(nowMicros, BUTTON_RIGHT, true, downX, downY);
+            heldButton = BUTTON_RIGHT;
+            state = State.HELD;
+        }
+    }
+    
+    private void startDrag(long timeMicros, int x, int y) {
+        long elapsed = Math.max(1, timeMicros - downMicros);
+        velocityX = (x - downX) * 1_000_000.0 / elapsed;
+        velocityY = (y - downY) * 1_000_000.0 / elapsed;
+        lastMoveMicros = timeMicros;
+        downX = x;
+        downY = y;
+        state = State.DRAGGING;
+    }
+    
+    private void trackDrag(long timeMicros, int x, int y) {
+        if (x == downX && y == downY) {
+            return;
+        }
+        long elapsed = timeMicros - lastMoveMicros;
+        if (elapsed > 0) {
+            // Smooth over the last few frames so one jittery report doesn't decide the fling
+            double weight = Math.min(1.0, elapsed / (double) VELOCITY_WINDOW_MICROS);
+            velocityX += ((x - downX) * 1_000_000.0 / elapsed - velocityX) * weight;
+            velocityY += ((y - downY) * 1_000_000.0 / elapsed - velocityY) * weight;
+            lastMoveMicros = timeMicros;
+        }
+        downX = x;
+        downY = y;
+    }
+    
+    private void startTwoFinger(long timeMicros, TouchSlots slots) {
+        int first = slots.activeSlot(0);
+        int second = slots.activeSlot(1);
+        if (second < 0) {
+            state = State.WAIT_FOR_UP;
+            return;
+        }
+        downMicros = state == State.PENDING ? downMicros : timeMicros;
+        startCenterX = lastCenterX = (slots.x(first) + slots.x(second)) / 2;
+        startCenterY = lastCenterY = (slots.y(first) + slots.y(second)) / 2;
+        startSpread = lastSpread = Math.max(1.0, spread(slots, first, second));
+        state = State.TWO_FINGER;
+    }
+    
+    private void updateTwoFinger(long timeMicros, TouchSlots slots) {
+        int first = slots.activeSlot(0);
+        int second = slots.activeSlot(1);
+        int centerX = (slots.x(first) + slots.x(second)) / 2;
+        int centerY = (slots.y(first) + slots.y(second)) / 2;
+        double spread = Math.max(1.0, spread(slots, first, second));
+        
+        if (state == State.TWO_FINGER) {
+            if (Math.abs(spread / startSpread - 1.0) >= config.pinchThreshold) {
+                state = State.PINCHING;
+                if (config.pinchAction == TouchConfig.PinchAction.MIDDLE_CLICK) {
+                    listener.onButton(timeMicros, BUTTON_MIDDLE, true, centerX, centerY);
+                    pinchButtonDown = true;
+                }
+            } else if (!withinSlop(centerX, centerY, startCenterX, startCenterY)) {
+                state = State.SCROLLING;
+            }
+        }
+        
+        if (state == State.SCROLLING && (centerX != lastCenterX || centerY != lastCenterY)) {
+            listener.onScroll(timeMicros, lastCenterX, lastCenterY, centerX, centerY);
+        } else if (state == State.PINCHING && spread != lastSpread) {
+            if (config.pinchAction == TouchConfig.PinchAction.SCROLL) {
+                listener.onPinch(timeMicros, centerX, centerY, spread / lastSpread);
+            }
+            lastSpread = spread;
+        }
+        lastCenterX = centerX;
+        lastCenterY = centerY;
+    }
+    
+    private static double spread(TouchSlots slots, int first, int second) {
+        double dx = slots.x(first) - slots.x(second);
+        double dy = slots.y(first) - slots.y(second);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    private boolean withinSlop(int x1, int y1, int x2, int y2) {
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+        return dx * dx + dy * dy <= (long) config.tapSlop * config.tapSlop;
+    }
+}
@@ -0,0 +1,173 @@
+package com.touchinput;
+
+import java.util.Arrays;
+
+// In-world touch zones (TouchConfig.hudZonesEnabled): parts of the HUD that do something when
+// tapped with no screen open. Zones 0-8 are the hotbar slots, laid out like the game's hotbar
+// from the scaled window size; the inventory and chat zones are shortcuts beside it.
+//
+// The layout is compiled into a region table: every GUI column and row maps to the band
+// between two zone edges it falls in, and each (column band, row band) cell holds its zone.
+// A tap is resolved with three array reads however many zones there are. The table is
+// rebuilt only when the GUI size (window size or GUI scale) or the zone settings change.
+public class HudZones {
+    public static final int NONE = -1;
+    public static final int HOTBAR_SLOTS = 9;
+    public static final int INVENTORY = 9;
+    public static final int CHAT = 10;
+    public static final int COUNT = 11;
+    
+    // The game's hotbar, in GUI pixels: 182 x 22 centered at the bottom, 20 per slot
+    private static final int HOTBAR_WIDTH = 182;
+    private static final int HOTBAR_HEIGHT = 22;
+    private static final int SLOT_WIDTH = 20;
+    
+    // Shortcuts: inventory just right of the hotbar, chat in the top left corner
+    private static final int INVENTORY_GAP = 4;
+    private static final int INVENTORY_WIDTH = 20;
+    private static final int CHAT_MARGIN = 2;
+    private static final int CHAT_WIDTH = 28;
+    private static final int CHAT_HEIGHT = 16;
+    
+    private final int[] left = new int[COUNT];
+    private final int[] top = new int[COUNT];
+    private final int[] right = new int[COUNT];    // Exclusive
+    private final int[] bottom = new int[COUNT];
+    private final boolean[] enabled = new boolean[COUNT];
+    
+    // Region table
+    private int[] columnBands = new int[0];     // GUI x -> column band
+    private int[] rowBands = new int[0];        // GUI y -> row band
+    private byte[] cells = new byte[0];         // row band * bandColumns + column band -> zone + 1
+    private int bandColumns;
+    
+    // What the table was built for
+    private int guiWidth = -1;
+    private int guiHeight = -1;
+    private boolean builtInventory;
+    private boolean builtChat;
+    private int rebuildCount = 0;
+    
+    // Rebuilds the table if the GUI size or the zone settings changed since the last call
+    public void update(TouchConfig config, int guiWidth, int guiHeight) {
+        if (guiWidth == this.guiWidth && guiHeight == this.guiHeight
+                && config.hudInventoryZone == builtInventory && config.hudChatZone == builtChat) {
+            return;
+        }
+        this.guiWidth = guiWidth;
+        this.guiHeight = guiHeight;
+        builtInventory = config.hudInventoryZone;
+        builtChat = config.hudChatZone;
+        layout();
+        build();
+        rebuildCount++;
+    }
+    
+    private void layout() {
+        int hotbarLeft = guiWidth / 2 - HOTBAR_WIDTH / 2;
+        int hotbarTop = guiHeight - HOTBAR_HEIGHT;
+        for (int slot = 0; slot < HOTBAR_SLOTS; slot++) {
+            // Slots meet halfway between their frames; the outer ones reach the hotbar's ends
+            int slotLeft = slot == 0 ? hotbarLeft : hotbarLeft + 1 + slot * SLOT_WIDTH;
+            int slotRight = slot == HOTBAR_SLOTS - 1 ? hotbarLeft + HOTBAR_WIDTH : hotbarLeft + 1 + (slot + 1) * SLOT_WIDTH;
+            set(slot, true, slotLeft, hotbarTop, slotRight, guiHeight);
+        }
+        int inventoryLeft = hotbarLeft + HOTBAR_WIDTH + INVENTORY_GAP;
+        set(INVENTORY, builtInventory, inventoryLeft, hotbarTop, inventoryLeft + INVENTORY_WIDTH, guiHeight);
+        set(CHAT, builtChat, CHAT_MARGIN, CHAT_MARGIN, CHAT_MARGIN + CHAT_WIDTH, CHAT_MARGIN + CHAT_HEIGHT);
+    }
+    
+    private void set(int zone, boolean on, int zoneLeft, int zoneTop, int zoneRight, int zoneBottom) {
+        left[zone] = Math.max(0, zoneLeft);
+        top[zone] = Math.max(0, zoneTop);
+        right[zone] = Math.min(guiWidth, zoneRight);
+        bottom[zone] = Math.min(guiHeight, zoneBottom);
+        // A window too small to hold the zone loses it
+        enabled[zone] = on && left[zone] < right[zone] && top[zone] < bottom[zone];
+    }
+    
+    private void build() {
+        int[] columnEdges = edges(left, right, guiWidth);
+        int[] rowEdges = edges(top, bottom, guiHeight);
+        columnBands = bands(columnEdges, guiWidth, columnBands);
+        rowBands = bands(rowEdges, guiHeight, rowBands);
+        bandColumns = columnEdges.length - 1;
+        
+        cells = new byte[bandColumns * (rowEdges.length - 1)];
+        for (int zone = 0; zone < COUNT; zone++) {
+            if (!enabled[zone]) {
+                continue;
+            }
+            // Zone edges are band edges, so a zone covers whole bands. Where zones overlap (only
+            // in a GUI smaller than the game allows) the later one wins.
+            for (int row = rowBands[top[zone]]; row <= rowBands[bottom[zone] - 1]; row++) {
+                for (int column = columnBands[left[zone]]; column <= columnBands[right[zone] - 1]; column++) {
+                    cells[row * bandColumns + column] = (byte) (zone + 1);
+                }
+            }
+        }
+    }
+    
+    // Sorted distinct edges of the enabled zones, plus 0 and size
+    private int[] edges(int[] starts, int[] ends, int size) {
+        int[] edges = new int[COUNT * 2 + 2];
+        int count = 0;
+        edges[count++] = 0;
+        edges[count++] = size;
+        for (int zone = 0; zone < COUNT; zone++) {
+            if (enabled[zone]) {
+                edges[count++] = starts[zone];
+                edges[count++] = ends[zone];
+            }
+        }
+        Arrays.sort(edges, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || edges[i] != edges[distinct - 1]) {
+                edges[distinct++] = edges[i];
+            }
+        }
+        return Arrays.copyOf(edges, distinct);
+    }
+    
+    private static int[] bands(int[] edges, int size, int[] reuse) {
+        int[] bands = reuse.length == size ? reuse : new int[size];
+        int band = 0;
+        for (int position = 0; position < size; position++) {
+            while (position >= edges[band + 1]) {
+                band++;
+            }
+            bands[position] = band;
+        }
+        return bands;
+    }
+    
+    // The zone at a GUI position, NONE if there is none
+    public int zoneAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= columnBands.length || y >= rowBands.length) {
+            return NONE;
+        }
+        return cells[rowBands[y] * bandColumns + columnBands[x]] - 1;
+    }
+    
+    public boolean isEnabled(int zone) {
+        return enabled[zone];
+    }
+    
+    // GUI rectangle of a zone, for drawing it: left, top, right, bottom (exclusive)
+    public void getBounds(int zone, int[] out) {
+        out[0] = left[zone];
+        out[1] = top[zone];
+        out[2] = right[zone];
+        out[3] = bottom[zone];
+    }
+    
+    public static boolean isHotbarSlot(int zone) {
+        return zone >= 0 && zone < HOTBAR_SLOTS;
+    }
+    
+    // How often the table was rebuilt, to check that it's not done per tap
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.touchinput;
+
+// Momentum after a touch-scroll flick. The fling starts at the finger's release velocity and
+// decays exponentially; step() is called once per rendered frame and returns how far to
+// scroll since the previous frame, so the result doesn't depend on the frame rate.
+public class KineticScroller {
+    // Speeds in pixels per second: flings slower than MIN_VELOCITY stop, faster ones are capped
+    private static final double MIN_VELOCITY = 20.0;
+    private static final double MAX_VELOCITY = 10_000.0;
+    
+    private double velocity;
+    private double decaySeconds;
+    private long lastNanos;
+    private boolean flinging = false;
+    
+    public void fling(double velocity, double decayMs, long nowNanos) {
+        if (decayMs <= 0 || Math.abs(velocity) < MIN_VELOCITY) {
+            stop();
+            return;
+        }
+        this.velocity = Math.max(-MAX_VELOCITY, Math.min(MAX_VELOCITY, velocity));
+        this.decaySeconds = decayMs / 1000.0;
+        this.lastNanos = nowNanos;
+        this.flinging = true;
+    }
+    
+    public void stop() {
+        flinging = false;
+        velocity = 0;
+    }
+    
+    public boolean isFlinging() {
+        return flinging;
+    }
+    
+    public double step(long nowNanos) {
+        if (!flinging) {
+            return 0;
+        }
+        double elapsed = Math.max(0, nowNanos - lastNanos) / 1e9;
+        lastNanos = nowNanos;
+        
+        // Integral of velocity * e^(-t / decay) over the frame
+        double decay = Math.exp(-elapsed / decaySeconds);
+        double distance = velocity * decaySeconds * (1.0 - decay);
+        velocity *= decay;
+        
+        if (Math.abs(velocity) < MIN_VELOCITY) {
+            flinging = false;
+        }
+        return distance;
+    }
+}
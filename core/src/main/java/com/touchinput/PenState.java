@@ -0,0 +1,171 @@
+package com.touchinput;
+
+// Stylus state (BTN_TOOL_PEN devices: single-contact ABS_X/ABS_Y, pressure, tilt, hover).
+// Pens report 200-500 samples a second, far more than the game renders, so the reader only
+// stores each sample here and the client takes the latest one once per frame. Only contact
+// and barrel button changes become queued events; hover and movement never do.
+//
+// Written by the reader thread; publish() makes a finished frame visible to the client.
+public class PenState {
+    // Reader side, built up event by event
+    private int x;
+    private int y;
+    private int pressure;
+    private int tiltX;
+    private int tiltY;
+    private boolean inRange = false;
+    private boolean touching = false;
+    private boolean barrel = false;
+    private boolean rangeChanged = false;
+    
+    // State at the end of the previous frame, for change detection
+    private boolean wasTouching = false;
+    private boolean wasBarrel = false;
+    
+    // Published for the client thread. Position is packed so x and y always match.
+    private volatile long publishedPosition;
+    private volatile int publishedPressure;
+    private volatile int publishedTiltX;
+    private volatile int publishedTiltY;
+    private volatile boolean publishedInRange = false;
+    private volatile boolean publishedTouching = false;
+    private volatile long samples = 0;
+    private long polledSamples = 0;     // Client thread
+    
+    public void setX(int x) {
+        this.x = x;
+    }
+    
+    public void setY(int y) {
+        this.y = y;
+    }
+    
+    public void setPressure(int pressure) {
+        this.pressure = pressure;
+    }
+    
+    public void setTiltX(int tiltX) {
+        this.tiltX = tiltX;
+    }
+    
+    public void setTiltY(int tiltY) {
+        this.tiltY = tiltY;
+    }
+    
+    public void setInRange(boolean inRange) {
+        if (this.inRange != inRange) {
+            this.inRange = inRange;
+            rangeChanged = true;
+        }
+        if (!inRange) {
+            // Leaving proximity lets go of everything, whether or not the device said so
+            touching = false;
+            barrel = false;
+        }
+    }
+    
+    public void setTouching(boolean touching) {
+        this.touching = touching;
+    }
+    
+    public void setBarrel(boolean barrel) {
+        this.barrel = barrel;
+    }
+    
+    // True while the pen is near the screen. BTN_TOUCH belongs to the pen then, not to fingers.
+    public boolean isInRange() {
+        return inRange;
+    }
+    
+    // True if the frame that just ended was a pen frame (the pen is near, or just left)
+    public boolean isPenFrame() {
+        return inRange || rangeChanged;
+    }
+    
+    public boolean touchChanged() {
+        return touching != wasTouching;
+    }
+    
+    public boolean barrelChanged() {
+        return barrel != wasBarrel;
+    }
+    
+    public boolean isTouching() {
+        return touching;
+    }
+    
+    public boolean isBarrelPressed() {
+        return barrel;
+    }
+    
+    public int x() {
+        return x;
+    }
+    
+    public int y() {
+        return y;
+    }
+    
+    // Called at the end of a pen frame, after the transitions have been handled
+    public void publish() {
+        wasTouching = touching;
+        wasBarrel = barrel;
+        rangeChanged = false;
+        publishedPosition = ((long) x << 32) | (y & 0xFFFFFFFFL);
+        publishedPressure = pressure;
+        publishedTiltX = tiltX;
+        publishedTiltY = tiltY;
+        publishedTouching = touching;
+        publishedInRange = inRange;
+        samples++;
+    }
+    
+    public void reset() {
+        inRange = false;
+        touching = false;
+        barrel = false;
+        rangeChanged = false;
+        wasTouching = false;
+        wasBarrel = false;
+        publishedInRange = false;
+        publishedTouching = false;
+    }
+    
+    // Client thread: the latest hover position if the pen moved since the last call while
+    // hovering (near the screen, not touching it). Samples in between are skipped.
+    public boolean pollHover(int[] position) {
+        long current = samples;
+        if (current == polledSamples) {
+            return false;
+        }
+        polledSamples = current;
+        if (!publishedInRange || publishedTouching) {
+            return false;
+        }
+        long packed = publishedPosition;
+        position[0] = (int) (packed >> 32);
+        position[1] = (int) packed;
+        return true;
+    }
+    
+    public boolean isHovering() {
+        return publishedInRange && !publishedTouching;
+    }
+    
+    public int getPressure() {
+        return publishedPressure;
+    }
+    
+    public int getTiltX() {
+        return publishedTiltX;
+    }
+    
+    public int getTiltY() {
+        return publishedTiltY;
+    }
+    
+    // Pen frames seen so far; the difference between two rendered frames is how many were merged
+    public long getSampleCount() {
+        return samples;
+    }
+}
@@ -0,0 +1,96 @@
+package com.touchinput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Owns the thread that feeds touch events (device reader or capture replay). At most one
+// reader is current: every start() retires the previous one first, and each reader gets a
+// generation number so a retired thread that is still blocked in a read can tell it must
+// not publish anything when it wakes up.
+public class ReaderLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger("ReaderLifecycle");
+    
+    public interface Body {
+        // Should return once isCurrent(generation) is false; interrupts are used to wake it
+        void run(int generation) throws Exception;
+    }
+    
+    private final long joinTimeoutMs;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicInteger aliveThreads = new AtomicInteger();
+    private final Object lock = new Object();
+    private Thread thread;
+    
+    public ReaderLifecycle(long joinTimeoutMs) {
+        this.joinTimeoutMs = joinTimeoutMs;
+    }
+    
+    public void start(String name, Body body) {
+        synchronized (lock) {
+            stop();
+            int readerGeneration = generation.incrementAndGet();
+            Thread reader = new Thread(() -> {
+                try {
+                    body.run(readerGeneration);
+                } catch (InterruptedException e) {
+                    // Stopped
+                } catch (Exception e) {
+                    if (isCurrent(readerGeneration)) {
+                        LOGGER.error("Touch reader {} failed", Thread.currentThread().getName(), e);
+                    }
+                } finally {
+                    aliveThreads.decrementAndGet();
+                }
+            }, name + "-" + readerGeneration);
+            reader.setDaemon(true);
+            thread = reader;
+            aliveThreads.incrementAndGet();
+            reader.start();
+            LOGGER.info("Started {} ({} reader threads alive)", reader.getName(), aliveThreads.get());
+        }
+    }
+    
+    // Retires the current reader and waits up to joinTimeoutMs for its thread to exit.
+    // Returns false if the thread is still alive (e.g. stuck opening a device).
+    public boolean stop() {
+        Thread reader;
+        synchronized (lock) {
+            generation.incrementAndGet();
+            reader = thread;
+            thread = null;
+        }
+        if (reader == null || reader == Thread.currentThread()) {
+            return true;
+        }
+        
+        // Wakes sleeps and closes interruptible channels blocked in read()
+        reader.interrupt();
+        try {
+            reader.join(joinTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reader.isAlive()) {
+            LOGGER.warn("{} did not stop within {} ms ({} reader threads alive)", reader.getName(), joinTimeoutMs, aliveThreads.get());
+            return false;
+        }
+        return true;
+    }
+    
+    public boolean isCurrent(int readerGeneration) {
+        return generation.get() == readerGeneration;
+    }
+    
+    public boolean isRunning() {
+        synchronized (lock) {
+            return thread != null;
+        }
+    }
+    
+    // Threads still running a Body, current or retired. More than one means a reader leaked.
+    public int getAliveThreadCount() {
+        return aliveThreads.get();
+    }
+}
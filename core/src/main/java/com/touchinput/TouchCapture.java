@@ -0,0 +1,127 @@
+package com.touchinput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends raw evdev events to a compact capture file through a memory-mapped window.
+//
+// File layout (little endian):
+//   header: magic "WTIC", version (short), reserved (short), record count (int),
+//           base time in micros (long), config length (int), config JSON (UTF-8)
+//   records: time delta to previous record in micros (int), type (short), code (short), value (int)
+//
+// The record count in the header is updated after every record, so a capture cut short
+// by a crash is still readable up to the last complete event.
+public class TouchCapture implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchCapture");
+    
+    static final int MAGIC = 0x43495457; // "WTIC"
+    static final short VERSION = 1;
+    static final int RECORD_SIZE = 12;
+    static final int COUNT_OFFSET = 8;
+    static final int BASE_TIME_OFFSET = 12;
+    static final int FIXED_HEADER_SIZE = 24;
+    
+    // Size of each mapped window; the file grows by this much at a time
+    private static final int CHUNK_SIZE = 1 << 20;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer window;
+    private long writePosition;
+    
+    private long lastTimeMicros = -1;
+    private int recordCount = 0;
+    private boolean closed = false;
+    
+    public TouchCapture(Path path, String configJson) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        byte[] configBytes = configJson.getBytes(StandardCharsets.UTF_8);
+        int headerSize = FIXED_HEADER_SIZE + configBytes.length;
+        
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) 0);
+        header.putInt(0);
+        header.putLong(0L); // Base time, filled in with the first record
+        header.putInt(configBytes.length);
+        header.put(configBytes);
+        
+        this.writePosition = headerSize;
+        mapWindow(writePosition);
+        
+        LOGGER.info("Capturing touch events to {}", path);
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public synchronized void append(long timeMicros, int type, int code, int value) {
+        if (closed) {
+            return;
+        }
+        
+        try {
+            if (window.remaining() < RECORD_SIZE) {
+                mapWindow(writePosition);
+            }
+            
+            if (lastTimeMicros < 0) {
+                lastTimeMicros = timeMicros;
+                header.putLong(BASE_TIME_OFFSET, timeMicros);
+            }
+            long delta = timeMicros - lastTimeMicros;
+            lastTimeMicros = timeMicros;
+            
+            window.putInt((int) Math.max(0, Math.min(Integer.MAX_VALUE, delta)));
+            window.putShort((short) type);
+            window.putShort((short) code);
+            window.putInt(value);
+            writePosition += RECORD_SIZE;
+            
+            header.putInt(COUNT_OFFSET, ++recordCount);
+        } catch (IOException e) {
+            LOGGER.error("Failed to grow capture file, stopping capture", e);
+            close();
+        }
+    }
+    
+    private void mapWindow(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, position, CHUNK_SIZE);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        
+        try {
+            header.force();
+            window.force();
+            // Drop the unused tail of the last window
+            channel.truncate(writePosition);
+            channel.close();
+            LOGGER.info("Capture finished: {} events in {}", recordCount, path);
+        } catch (IOException e) {
+            LOGGER.error("Error closing capture file", e);
+        }
+    }
+}
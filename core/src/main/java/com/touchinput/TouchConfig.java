@@ -0,0 +1,537 @@
+package com. touchinput;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TouchConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchConfig");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static Path configPath;
+    
+    // Debug settings
+    public boolean debugCirclesEnabled = false;
+    
+    // Touch device settings
+    public boolean autoDetectTouchResolution = true;
+    public int touchMaxX = 1599;
+    public int touchMaxY = 2559;
+    public String touchDevicePath = "/dev/input/event6";
+    
+    // Screen settings (used as fallback, but live window size is preferred)
+    public boolean autoDetectScreenResolution = true;
+    public int screenWidth = 2560;
+    public int screenHeight = 1600;
+    
+    // Mapping settings
+    public MappingMode mappingMode = MappingMode.AUTO;
+    public boolean swapXY = true;      // Swap axes (for rotated screens)
+    public boolean invertX = false;    // Invert X axis
+    public boolean invertY = true;     // Invert Y axis
+    
+    // Device profiles, keyed by TouchDeviceInfo.getKey(). The device settings above (and the
+    // window and palm settings below) are the working copy of activeProfile.
+    public Map<String, DeviceProfile> profiles = new LinkedHashMap<>();
+    public String activeProfile = null;
+    
+    // Scaling settings
+    public boolean autoDetectSystemScale = true;
+    public double manualSystemScale = 1.66;
+    
+    // Palm rejection: contacts with TOUCH_MAJOR above palmMaxTouchMajor (or reported as a palm)
+    // are rejected, contacts lighter than palmMinPressure are ignored until they press harder.
+    // Units are the device's own; 0 turns a check off.
+    public boolean palmRejectionEnabled = true;
+    public int palmMaxTouchMajor = 0;
+    public int palmMinPressure = 0;
+    
+    // Click dispatch (see DispatchMode)
+    public DispatchMode dispatchMode = DispatchMode.MOUSE;
+    
+    // Stop decoding touches while the game window is unfocused or minimized
+    public boolean suspendWhenUnfocused = true;
+    
+    // Event handoff: at most eventQueueCapacity scroll/pinch events wait for the client thread,
+    // consecutive ones are merged, and after a screen change events older than staleEventMs are
+    // discarded (0 keeps them)
+    public int eventQueueCapacity = 256;
+    public boolean coalesceMoves = true;
+    public int staleEventMs = 250;
+    
+    // Window settings: with windowedMapping the game runs in a window whose content area starts
+    // at (windowX, windowY) panel pixels; touches outside it are ignored
+    public boolean windowedMapping = false;
+    public int windowX = 0;
+    public int windowY = 0;
+    
+    // Multi-monitor layout: the panel is one output of a larger desktop. With outputMapping the
+    // panel shows the desktop rectangle at (outputX, outputY), outputWidth x outputHeight, in the
+    // compositor's logical pixels (0 size = screenWidth/screenHeight over the system scale), and
+    // windowX/windowY place the game window on the desktop in the same units. Touches that don't
+    // land on the game window are rejected before they reach the gestures.
+    public boolean outputMapping = false;
+    public int outputX = 0;
+    public int outputY = 0;
+    public int outputWidth = 0;
+    public int outputHeight = 0;
+    
+    // Per-region offsets measured by the accuracy test and applied on top of the mapping
+    // (see CorrectionGrid); null when the panel hasn't been corrected
+    public CorrectionGrid correction = null;
+    
+    // Capture settings (raw events are written to touch-captures/ in the game directory)
+    public boolean captureEnabled = false;
+    
+    // Touch socket for overlays and UI tests (see TouchSocketServer). An empty path means
+    // wayland-touch-input.sock in the game directory; each client buffers up to socketBufferFrames.
+    public boolean socketEnabled = false;
+    public String socketPath = "";
+    public int socketBufferFrames = 256;
+    
+    // Gesture settings (distances in raw touch units, times in milliseconds)
+    public boolean gesturesEnabled = true;
+    public int tapSlop = 40;              // Movement allowed before a touch becomes a drag
+    public int longPressMs = 500;         // Hold time for a right-button press
+    public int doubleTapMs = 300;         // Max gap between the taps of a double-tap
+    public int twoFingerTapMs = 250;      // Max duration of a two-finger tap (right click)
+    public double pinchThreshold = 0.15;  // Relative spread change that starts a pinch
+    public PinchAction pinchAction = PinchAction.SCROLL;
+    public double scrollPixelsPerNotch = 20.0; // GUI pixels of finger movement per scroll notch
+    
+    // Touch scrolling: one-finger vertical drags over lists scroll them, flicks keep going
+    public boolean touchScrollEnabled = true;
+    public double flingDecayMs = 325.0;   // Momentum time constant, 0 disables momentum
+    
+    // Inventory slots: tap, long-press and drag on a slot act on it directly (see SlotTouch)
+    public boolean touchSlotsEnabled = true;
+    
+    // Multi-pointer: every finger after the first presses, drags and releases the widget under
+    // it on its own (see TouchPointers). Two-finger gestures are off while this is on.
+    public boolean multiPointerEnabled = false;
+    
+    // Touch look: with no screen open, dragging inside the look region turns the camera.
+    // The region is in fractions of the screen; the default leaves the left half to other controls.
+    public boolean touchLookEnabled = true;
+    public double lookSensitivity = 1.0;  // Multiplier on top of the game's mouse sensitivity
+    public double lookRegionLeft = 0.5;
+    public double lookRegionTop = 0.0;
+    public double lookRegionRight = 1.0;
+    public double lookRegionBottom = 1.0;
+    
+    // HUD zones: with no screen open, tapping a hotbar slot selects it, and the inventory and
+    // chat zones open those (see HudZones). A touch that lands in a zone doesn't turn the camera.
+    public boolean hudZonesEnabled = true;
+    public boolean hudInventoryZone = true;
+    public boolean hudChatZone = true;
+    
+    public enum MappingMode {
+        NORMAL("Normal (no swap/invert)"),
+        ROTATE_90("Rotate 90° (Landscape Left)"),
+        ROTATE_180("Rotate 180° (Upside Down)"),
+        ROTATE_270("Rotate 270° (Landscape Right)"),
+        AUTO("Auto-detect from system"),
+        CUSTOM("Custom (manual settings)");
+        
+        private final String displayName;
+        
+        MappingMode(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+    
+    public enum PinchAction {
+        NONE("Nothing"),
+        SCROLL("Scroll"),
+        MIDDLE_CLICK("Middle Click");
+        
+        private final String displayName;
+        
+        PinchAction(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+    
+    // How taps reach the screen
+    public enum DispatchMode {
+        MOUSE("Mouse"),     // Through the game's mouse handler, exactly like a real click
+        DIRECT("Direct");   // Straight to the widget under the finger, then the screen
+        
+        private final String displayName;
+        
+        DispatchMode(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+    
+    // Set by the mod from the loader's config directory before anything is loaded. Without a
+    // loader (benchmarks, tools) the file is looked up in config/ under the working directory.
+    public static void setConfigPath(Path path) {
+        configPath = path;
+    }
+    
+    public static Path getConfigPath() {
+        if (configPath == null) {
+            configPath = Path.of("config", "wayland-touch-input.json");
+        }
+        return configPath;
+    }
+    
+    public static TouchConfig load() {
+        Path configPath = getConfigPath();
+        try {
+            File configFile = configPath.toFile();
+            if (configFile.exists()) {
+                TouchConfig config = parse(configPath);
+                String error = config.validate();
+                if (error == null) {
+                    LOGGER.info("Loaded config from {}", configPath);
+                    return config;
+                }
+                // Keep the user's file so it can be fixed by hand, just don't use it
+                LOGGER.error("Invalid config in {}: {}, using defaults", configPath, error);
+                return new TouchConfig();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to load config, using defaults", e);
+            return new TouchConfig();
+        }
+        
+        TouchConfig config = new TouchConfig();
+        config.save(); // Save default config
+        return config;
+    }
+    
+    // Parses a config file without any fallback, so callers can reject bad files
+    public static TouchConfig parse(Path path) throws Exception {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            TouchConfig config = GSON.fromJson(reader, TouchConfig.class);
+            if (config == null) {
+                throw new IllegalStateException("file is empty");
+            }
+            return config;
+        }
+    }
+    
+    // Returns a description of the first invalid setting, or null if the config is usable
+    public String validate() {
+        if (touchDevicePath == null || touchDevicePath.isBlank()) return "touchDevicePath is empty";
+        if (mappingMode == null) return "mappingMode is missing or unknown";
+        if (touchMaxX <= 0 || touchMaxY <= 0) return "touchMaxX/touchMaxY must be positive";
+        if (screenWidth <= 0 || screenHeight <= 0) return "screenWidth/screenHeight must be positive";
+        if (outputWidth < 0 || outputHeight < 0) return "outputWidth/outputHeight must not be negative";
+        if (correction != null && correction.validate() != null) return correction.validate();
+        if (!(manualSystemScale > 0) || Double.isInfinite(manualSystemScale)) return "manualSystemScale must be a positive number";
+        if (dispatchMode == null) return "dispatchMode is missing or unknown";
+        if (profiles == null) return "profiles must be an object";
+        for (Map.Entry<String, DeviceProfile> entry : profiles.entrySet()) {
+            String error = entry.getValue() == null ? "is empty" : entry.getValue().validate();
+            if (error != null) return "profile " + entry.getKey() + ": " + error;
+        }
+        if (palmMaxTouchMajor < 0 || palmMinPressure < 0) return "palm rejection thresholds must not be negative";
+        if (eventQueueCapacity <= 0) return "eventQueueCapacity must be positive";
+        if (staleEventMs < 0) return "staleEventMs must not be negative";
+        if (socketPath == null) return "socketPath is missing";
+        if (socketBufferFrames <= 0) return "socketBufferFrames must be positive";
+        if (tapSlop < 0) return "tapSlop must not be negative";
+        if (longPressMs <= 0 || doubleTapMs < 0 || twoFingerTapMs < 0) return "gesture times must be positive";
+        if (!(pinchThreshold > 0) || pinchThreshold >= 1) return "pinchThreshold must be between 0 and 1";
+        if (pinchAction == null) return "pinchAction is missing or unknown";
+        if (!(scrollPixelsPerNotch > 0) || Double.isInfinite(scrollPixelsPerNotch)) return "scrollPixelsPerNotch must be a positive number";
+        if (!(flingDecayMs >= 0) || Double.isInfinite(flingDecayMs)) return "flingDecayMs must not be negative";
+        if (!(lookSensitivity > 0) || Double.isInfinite(lookSensitivity)) return "lookSensitivity must be a positive number";
+        if (!(lookRegionLeft >= 0 && lookRegionLeft < lookRegionRight && lookRegionRight <= 1)
+                || !(lookRegionTop >= 0 && lookRegionTop < lookRegionBottom && lookRegionBottom <= 1)) {
+            return "look region must be a non-empty area within 0..1";
+        }
+        return null;
+    }
+    
+    public void copyFrom(TouchConfig other) {
+        this.debugCirclesEnabled = other.debugCirclesEnabled;
+        this.touchDevicePath = other.touchDevicePath;
+        this.autoDetectTouchResolution = other.autoDetectTouchResolution;
+        this.touchMaxX = other.touchMaxX;
+        this.touchMaxY = other.touchMaxY;
+        this.autoDetectScreenResolution = other.autoDetectScreenResolution;
+        this.screenWidth = other.screenWidth;
+        this.screenHeight = other.screenHeight;
+        this.mappingMode = other.mappingMode;
+        this.swapXY = other.swapXY;
+        this.invertX = other.invertX;
+        this.invertY = other.invertY;
+        this.profiles = new LinkedHashMap<>();
+        other.profiles.forEach((key, profile) -> this.profiles.put(key, profile.copy()));
+        this.activeProfile = other.activeProfile;
+        this.autoDetectSystemScale = other.autoDetectSystemScale;
+        this.manualSystemScale = other.manualSystemScale;
+        this.palmRejectionEnabled = other.palmRejectionEnabled;
+        this.palmMaxTouchMajor = other.palmMaxTouchMajor;
+        this.palmMinPressure = other.palmMinPressure;
+        this.dispatchMode = other.dispatchMode;
+        this.suspendWhenUnfocused = other.suspendWhenUnfocused;
+        this.eventQueueCapacity = other.eventQueueCapacity;
+        this.coalesceMoves = other.coalesceMoves;
+        this.staleEventMs = other.staleEventMs;
+        this.windowedMapping = other.windowedMapping;
+        this.windowX = other.windowX;
+        this.windowY = other.windowY;
+        this.outputMapping = other.outputMapping;
+        this.outputX = other.outputX;
+        this.outputY = other.outputY;
+        this.outputWidth = other.outputWidth;
+        this.outputHeight = other.outputHeight;
+        this.correction = other.correction;
+        this.captureEnabled = other.captureEnabled;
+        this.socketEnabled = other.socketEnabled;
+        this.socketPath = other.socketPath;
+        this.socketBufferFrames = other.socketBufferFrames;
+        this.gesturesEnabled = other.gesturesEnabled;
+        this.tapSlop = other.tapSlop;
+        this.longPressMs = other.longPressMs;
+        this.doubleTapMs = other.doubleTapMs;
+        this.twoFingerTapMs = other.twoFingerTapMs;
+        this.pinchThreshold = other.pinchThreshold;
+        this.pinchAction = other.pinchAction;
+        this.scrollPixelsPerNotch = other.scrollPixelsPerNotch;
+        this.touchScrollEnabled = other.touchScrollEnabled;
+        this.flingDecayMs = other.flingDecayMs;
+        this.touchSlotsEnabled = other.touchSlotsEnabled;
+        this.multiPointerEnabled = other.multiPointerEnabled;
+        this.touchLookEnabled = other.touchLookEnabled;
+        this.lookSensitivity = other.lookSensitivity;
+        this.lookRegionLeft = other.lookRegionLeft;
+        this.lookRegionTop = other.lookRegionTop;
+        this.lookRegionRight = other.lookRegionRight;
+        this.lookRegionBottom = other.lookRegionBottom;
+        this.hudZonesEnabled = other.hudZonesEnabled;
+        this.hudInventoryZone = other.hudInventoryZone;
+        this.hudChatZone = other.hudChatZone;
+    }
+    
+    // Called when the reader opens a device: makes that device's profile active, creating it from
+    // the current settings the first time the device is seen. Only fields are copied, nothing is
+    // parsed. Returns true if a new profile was created (and should be saved).
+    public boolean useDevice(TouchDeviceInfo device) {
+        String key = device.getKey();
+        DeviceProfile profile = profiles.get(key);
+        boolean created = profile == null;
+        if (key.equals(activeProfile) && !created) {
+            profile.devicePath = touchDevicePath;
+            return false;
+        }
+        
+        storeActiveProfile();
+        if (created) {
+            profile = new DeviceProfile();
+            profile.name = device.getName();
+            profile.copyFrom(this);
+            profile.devicePath = touchDevicePath;
+            profiles.put(key, profile);
+            LOGGER.info("Created touch profile for {}", key);
+        } else {
+            profile.applyTo(this);
+            profile.devicePath = touchDevicePath;
+            LOGGER.info("Switched to touch profile for {}", key);
+        }
+        activeProfile = key;
+        return created;
+    }
+    
+    // Called at startup with the devices found in /dev/input. Event numbers aren't stable across
+    // boots, so if the active profile's device now sits at another node, follow it there. Only
+    // done while touchDevicePath is still where the profile last saw it: a path set by hand wins.
+    public boolean followActiveDevice(Map<String, Path> devices) {
+        DeviceProfile profile = activeProfile != null ? profiles.get(activeProfile) : null;
+        Path found = profile != null ? devices.get(activeProfile) : null;
+        if (found == null || !touchDevicePath.equals(profile.devicePath)) {
+            return false;
+        }
+        TouchDeviceInfo current = TouchDeviceInfo.read(Path.of(touchDevicePath));
+        if (current != null && current.getKey().equals(activeProfile)) {
+            return false;
+        }
+        LOGGER.info("Touch device {} moved from {} to {}", activeProfile, touchDevicePath, found);
+        touchDevicePath = found.toString();
+        profile.devicePath = touchDevicePath;
+        return true;
+    }
+    
+    // Makes a stored profile active and points the reader at the device it was last seen on
+    public boolean selectProfile(String key) {
+        DeviceProfile profile = profiles.get(key);
+        if (profile == null) {
+            return false;
+        }
+        storeActiveProfile();
+        profile.applyTo(this);
+        touchDevicePath = profile.devicePath;
+        activeProfile = key;
+        return true;
+    }
+    
+    // Writes the working settings back into the active profile
+    public void storeActiveProfile() {
+        DeviceProfile profile = activeProfile != null ? profiles.get(activeProfile) : null;
+        if (profile != null) {
+            profile.copyFrom(this);
+        }
+    }
+    
+    public boolean sameSettings(TouchConfig other) {
+        return toJson().equals(other.toJson());
+    }
+    
+    public String toJson() {
+        return GSON.toJson(this);
+    }
+    
+    public static TouchConfig fromJson(String json) {
+        return GSON.fromJson(json, TouchConfig.class);
+    }
+    
+    public void save() {
+        storeActiveProfile();
+        Path configPath = getConfigPath();
+        try {
+            Files.createDirectories(configPath.getParent());
+            
+            // Write to a temp file and rename it over the config, so the file
+            // watcher (or a crash) never sees a half-written file
+            Path tempFile = configPath.resolveSibling(configPath.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                GSON.toJson(this, writer);
+            }
+            try {
+                Files.move(tempFile, configPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, configPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOGGER.info("Saved config to {}", configPath);
+        } catch (Exception e) {
+            LOGGER. error("Failed to save config", e);
+        }
+    }
+    
+    public int[] mapCoordinates(int touchX, int touchY, double guiScale) {
+        double[] normalized = new double[2];
+        mapNormalized(touchX, touchY, normalized);
+        
+        int screenX = (int) (normalized[0] * screenWidth / guiScale);
+        int screenY = (int) (normalized[1] * screenHeight / guiScale);
+        
+        screenX = Math.max(0, Math.min((int)(screenWidth / guiScale) - 1, screenX));
+        screenY = Math.max(0, Math.min((int)(screenHeight / guiScale) - 1, screenY));
+        
+        return new int[]{screenX, screenY};
+    }
+    
+    // Maps a touch position to screen space without rounding: out[0] and out[1] are
+    // fractions of the screen width and height (0..1 for touches on the sensor)
+    public void mapNormalized(int touchX, int touchY, double[] out) {
+        double normX, normY;
+        
+        MappingMode effectiveMode = mappingMode;
+        
+        if (mappingMode == MappingMode. AUTO) {
+            effectiveMode = detectMappingMode();
+        }
+        
+        switch (effectiveMode) {
+            case NORMAL:
+                normX = touchX / (double) touchMaxX;
+                normY = touchY / (double) touchMaxY;
+                break;
+                
+            case ROTATE_180:
+                normX = (touchMaxX - touchX) / (double) touchMaxX;
+                normY = (touchMaxY - touchY) / (double) touchMaxY;
+                break;
+                
+            case ROTATE_270:
+                normX = (touchMaxY - touchY) / (double) touchMaxY;
+                normY = touchX / (double) touchMaxX;
+                break;
+                
+            case CUSTOM:
+                double sensorX = touchX / (double) touchMaxX;
+                double sensorY = touchY / (double) touchMaxY;
+                
+                if (invertX) sensorX = 1.0 - sensorX;
+                if (invertY) sensorY = 1.0 - sensorY;
+                
+                normX = swapXY ? sensorY : sensorX;
+                normY = swapXY ? sensorX : sensorY;
+                break;
+                
+            case ROTATE_90:
+            case AUTO:
+            default:
+                normX = touchY / (double) touchMaxY;
+                normY = (touchMaxX - touchX) / (double) touchMaxX;
+                break;
+        }
+        
+        out[0] = normX;
+        out[1] = normY;
+    }
+    
+    private MappingMode detectMappingMode() {
+        // Try to detect screen orientation from system
+        // Check if screen is rotated (width < height means portrait)
+        
+        if (touchMaxX < touchMaxY && screenWidth > screenHeight) {
+            // Touch sensor is portrait (vertical), screen is landscape (horizontal)
+            // This means screen is rotated 90° from sensor
+            return MappingMode. ROTATE_90;
+        } else if (touchMaxX > touchMaxY && screenWidth < screenHeight) {
+            // Touch sensor is landscape, screen is portrait
+            return MappingMode.ROTATE_270;
+        } else {
+            // Same orientation
+            return MappingMode.NORMAL;
+        }
+    }
+    
+    // windowWidth/windowHeight: the game window's size in window pixels
+    public double getEffectiveSystemScale(int windowWidth, int windowHeight) {
+        // A window is smaller than the panel, so its size says nothing about the scale
+        if (! autoDetectSystemScale || windowedMapping || outputMapping) {
+            return manualSystemScale;
+        }
+        
+        if (windowWidth <= 0 || windowHeight <= 0) {
+            LOGGER. warn("Auto-detect failed, using manual scale:  {}", manualSystemScale);
+            return manualSystemScale;
+        }
+        
+        // Auto-detect from window size
+        double scaleX = (double) screenWidth / windowWidth;
+        double scaleY = (double) screenHeight / windowHeight;
+        
+        return (scaleX + scaleY) / 2.0;
+    }
+}
@@ -0,0 +1,118 @@
+package com.touchinput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Watches the config directory and hands freshly parsed, validated configs to a listener.
+// Parsing happens on the watcher thread; the listener decides where to apply the result.
+public class TouchConfigWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchConfigWatcher");
+    
+    // Editors and deploy tools often write a file in several steps
+    private static final long DEBOUNCE_MS = 250;
+    
+    private final Path configFile;
+    private final Consumer<TouchConfig> listener;
+    
+    private WatchService watchService;
+    private volatile boolean running = false;
+    
+    public TouchConfigWatcher(Path configFile, Consumer<TouchConfig> listener) {
+        this.configFile = configFile;
+        this.listener = listener;
+    }
+    
+    public void start() {
+        Path dir = configFile.getParent();
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOGGER.error("Failed to watch config directory {}, live reload disabled", dir, e);
+            return;
+        }
+        
+        running = true;
+        Thread watcherThread = new Thread(this::run, "TouchConfigWatcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        
+        LOGGER.info("Watching {} for changes", configFile);
+    }
+    
+    public void stop() {
+        running = false;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error closing config watcher", e);
+        }
+    }
+    
+    private void run() {
+        try {
+            while (running) {
+                WatchKey key = watchService.take();
+                if (!drainKey(key)) {
+                    continue;
+                }
+                
+                // Debounce: wait until the file has been quiet for DEBOUNCE_MS
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    drainKey(next);
+                }
+                
+                reloadFromDisk();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        } catch (Exception e) {
+            LOGGER.error("Config watcher failed, live reload disabled", e);
+        }
+    }
+    
+    // Returns true if any event on the key concerns the config file
+    private boolean drainKey(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (configFile.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+    
+    private void reloadFromDisk() {
+        TouchConfig newConfig;
+        try {
+            newConfig = TouchConfig.parse(configFile);
+        } catch (Exception e) {
+            LOGGER.warn("Rejected {}: could not parse ({}), keeping current settings", configFile, e.getMessage());
+            return;
+        }
+        
+        String error = newConfig.validate();
+        if (error != null) {
+            LOGGER.warn("Rejected {}: {}, keeping current settings", configFile, error);
+            return;
+        }
+        
+        listener.accept(newConfig);
+    }
+}
@@ -0,0 +1,91 @@
+package com.touchinput;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Identity of an evdev device, read from sysfs. Event node numbers change between boots and
+// when devices are plugged in a different order; name, phys and vendor:product don't.
+public class TouchDeviceInfo {
+    private static final Path SYS_CLASS_INPUT = Path.of("/sys/class/input");
+    private static final Path DEV_INPUT = Path.of("/dev/input");
+    
+    private final String name;
+    private final String phys;
+    private final String vendorProduct;
+    
+    public TouchDeviceInfo(String name, String phys, String vendorProduct) {
+        this.name = name;
+        this.phys = phys;
+        this.vendorProduct = vendorProduct;
+    }
+    
+    // Null if the path isn't an evdev node with sysfs information (FIFOs, files, replays)
+    public static TouchDeviceInfo read(Path devicePath) {
+        try {
+            // Resolves /dev/input/by-id/... links to the eventN node
+            String node = devicePath.toRealPath().getFileName().toString();
+            Path device = SYS_CLASS_INPUT.resolve(node).resolve("device");
+            if (!node.startsWith("event") || !Files.isDirectory(device)) {
+                return null;
+            }
+            return new TouchDeviceInfo(
+                readLine(device.resolve("name")),
+                readLine(device.resolve("phys")),
+                readLine(device.resolve("id/vendor")) + ":" + readLine(device.resolve("id/product")));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    // Every evdev node with sysfs information, by profile key. Empty if /dev/input can't be listed.
+    public static Map<String, Path> scan() {
+        Map<String, Path> devices = new LinkedHashMap<>();
+        try (Stream<Path> nodes = Files.list(DEV_INPUT)) {
+            nodes.filter(node -> node.getFileName().toString().startsWith("event"))
+                .sorted()
+                .forEach(node -> {
+                    TouchDeviceInfo info = read(node);
+                    if (info != null) {
+                        devices.putIfAbsent(info.getKey(), node);
+                    }
+                });
+        } catch (IOException e) {
+            // No evdev here (other OS, sandbox); the configured path is used as is
+        }
+        return devices;
+    }
+    
+    private static String readLine(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return "";
+        }
+        return Files.readString(path, StandardCharsets.UTF_8).trim();
+    }
+    
+    // Profile key, e.g. "04f3:2a1c ELAN9008:00 04F3:2A1C @ i2c-ELAN9008:00"
+    public String getKey() {
+        return vendorProduct + " " + name + (phys.isEmpty() ? "" : " @ " + phys);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getPhys() {
+        return phys;
+    }
+    
+    public String getVendorProduct() {
+        return vendorProduct;
+    }
+    
+    @Override
+    public String toString() {
+        return getKey();
+    }
+}
@@ -0,0 +1,56 @@
+package com.touchinput;
+
+// Helper class for touch events. Positions are raw touch coordinates, mapped on the client thread.
+class TouchEvent {
+    final TouchEventType type;
+    final int button;     // PRESS / RELEASE; POINTER_DOWN / POINTER_UP: the slot
+    final int x;
+    final int y;
+    final int fromX;      // SCROLL: previous centroid
+    final int fromY;
+    final double scale;   // PINCH: spread relative to the previous pinch event
+    final double velocityX; // DRAG_END: touch units per second
+    final double velocityY;
+    final long timeMicros;
+    long queuedNanos;     // Set by TouchEventQueue.offer
+    int session;          // Touch session, set when queued
+    int[] pointers;       // FRAME: (slot, x, y) per contact, a pooled buffer (TouchEventQueue.takeFrameBuffer)
+    int pointerCount;     // FRAME: contacts in pointers; button holds the primary slot
+    
+    private TouchEvent(TouchEventType type, int button, int x, int y, int fromX, int fromY, double scale,
+                       double velocityX, double velocityY, long timeMicros) {
+        this.type = type;
+        this.button = button;
+        this.x = x;
+        this.y = y;
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.scale = scale;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.timeMicros = timeMicros;
+    }
+    
+    static TouchEvent button(TouchEventType type, int button, int x, int y, long timeMicros) {
+        return new TouchEvent(type, button, x, y, x, y, 1.0, 0, 0, timeMicros);
+    }
+    
+    static TouchEvent drag(TouchEventType type, int x, int y, int fromX, int fromY, double velocityX, double velocityY, long timeMicros) {
+        return new TouchEvent(type, 0, x, y, fromX, fromY, 1.0, velocityX, velocityY, timeMicros);
+    }
+    
+    static TouchEvent scroll(int fromX, int fromY, int toX, int toY, long timeMicros) {
+        return new TouchEvent(TouchEventType.SCROLL, -1, toX, toY, fromX, fromY, 1.0, 0, 0, timeMicros);
+    }
+    
+    static TouchEvent pinch(int centerX, int centerY, double scale, long timeMicros) {
+        return new TouchEvent(TouchEventType.PINCH, -1, centerX, centerY, centerX, centerY, scale, 0, 0, timeMicros);
+    }
+    
+    static TouchEvent frame(int[] pointers, int pointerCount, int primarySlot, long timeMicros) {
+        TouchEvent event = new TouchEvent(TouchEventType.FRAME, primarySlot, 0, 0, 0, 0, 1.0, 0, 0, timeMicros);
+        event.pointers = pointers;
+        event.pointerCount = pointerCount;
+        return event;
+    }
+}
@@ -0,0 +1,162 @@
+package com.touchinput;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded handoff from the reader thread to the client thread. If the client stalls (world
+// load, GC pause) the backlog stays small and cheap to catch up on:
+//
+//   - consecutive scrolls and pinches are merged into one (coalesceMoves), and so are
+//     consecutive frames with the same contacts (only the latest positions are kept)
+//   - once eventQueueCapacity events are waiting, further scrolls, pinches and frames are dropped
+//   - presses, releases and drag start/end are never dropped for space, they carry state
+//   - after a screen change, events queued more than staleEventMs earlier are discarded
+//     (except releases), so a burst meant for the previous screen doesn't hit the new one
+//
+// Frames carry their contacts in buffers from a pool kept here: the reader takes one per frame
+// and it comes back when the client recycles the frame, or when the queue merges or drops it.
+final class TouchEventQueue {
+    // (slot, x, y) for every slot
+    static final int FRAME_BUFFER_SIZE = TouchSlots.MAX_SLOTS * 3;
+    
+    private final TouchConfig config;
+    private final ArrayDeque<TouchEvent> events = new ArrayDeque<>();
+    private final ArrayDeque<int[]> frameBuffers = new ArrayDeque<>();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    TouchEventQueue(TouchConfig config) {
+        this.config = config;
+    }
+    
+    // Reader thread
+    void offer(TouchEvent event) {
+        event.queuedNanos = System.nanoTime();
+        boolean move = isMove(event.type);
+        synchronized (events) {
+            if (move) {
+                TouchEvent last = events.peekLast();
+                if (config.coalesceMoves && last != null && last.type == event.type && mergeable(last, event)) {
+                    events.pollLast();
+                    events.offerLast(merge(last, event));
+                    releaseBuffer(last);
+                    coalesced.incrementAndGet();
+                    return;
+                }
+                if (events.size() >= config.eventQueueCapacity) {
+                    releaseBuffer(event);
+                    dropped.incrementAndGet();
+                    return;
+                }
+            }
+            events.offerLast(event);
+        }
+    }
+    
+    // Client thread. Events queued before staleBeforeNanos are discarded unless they are
+    // releases; pass Long.MIN_VALUE to keep everything.
+    TouchEvent poll(long staleBeforeNanos) {
+        synchronized (events) {
+            TouchEvent event;
+            while ((event = events.pollFirst()) != null) {
+                if (event.queuedNanos >= staleBeforeNanos || isRelease(event.type)) {
+                    return event;
+                }
+                releaseBuffer(event);
+                dropped.incrementAndGet();
+            }
+            return null;
+        }
+    }
+    
+    TouchEvent poll() {
+        return poll(Long.MIN_VALUE);
+    }
+    
+    void clear() {
+        synchronized (events) {
+            TouchEvent event;
+            while ((event = events.pollFirst()) != null) {
+                releaseBuffer(event);
+            }
+        }
+    }
+    
+    // Reader thread: a buffer of FRAME_BUFFER_SIZE for the next frame's contacts
+    int[] takeFrameBuffer() {
+        synchronized (events) {
+            int[] buffer = frameBuffers.pollFirst();
+            return buffer != null ? buffer : new int[FRAME_BUFFER_SIZE];
+        }
+    }
+    
+    // Client thread: the frame has been handled, its buffer can be reused
+    void recycle(TouchEvent event) {
+        synchronized (events) {
+            releaseBuffer(event);
+        }
+    }
+    
+    // Under the lock. The pool never holds more buffers than the queue can hold frames.
+    private void releaseBuffer(TouchEvent event) {
+        if (event.pointers != null && frameBuffers.size() < config.eventQueueCapacity) {
+            frameBuffers.offerFirst(event.pointers);
+        }
+        event.pointers = null;
+    }
+    
+    int size() {
+        synchronized (events) {
+            return events.size();
+        }
+    }
+    
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+    
+    long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    private static boolean isMove(TouchEventType type) {
+        return type == TouchEventType.SCROLL || type == TouchEventType.PINCH
+            || type == TouchEventType.FRAME;
+    }
+    
+    // Frames merge only if no finger landed or lifted in between
+    private static boolean mergeable(TouchEvent first, TouchEvent second) {
+        if (second.type != TouchEventType.FRAME) {
+            return true;
+        }
+        if (first.session != second.session || first.pointerCount != second.pointerCount) {
+            return false;
+        }
+        for (int i = 0; i < first.pointerCount * 3; i += 3) {
+            if (first.pointers[i] != second.pointers[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Releases end whatever the client is holding, dropping one would leave a button stuck
+    private static boolean isRelease(TouchEventType type) {
+        return type == TouchEventType.RELEASE || type == TouchEventType.DRAG_END
+            || type == TouchEventType.POINTER_UP;
+    }
+    
+    // Scrolls chain (from of the first, to of the second), pinch scales multiply, the later
+    // frame replaces the earlier one
+    private static TouchEvent merge(TouchEvent first, TouchEvent second) {
+        if (second.type == TouchEventType.FRAME) {
+            return second;
+        }
+        TouchEvent merged = second.type == TouchEventType.SCROLL
+            ? TouchEvent.scroll(first.fromX, first.fromY, second.x, second.y, second.timeMicros)
+            : TouchEvent.pinch(second.x, second.y, first.scale * second.scale, second.timeMicros);
+        merged.queuedNanos = second.queuedNanos;
+        merged.session = second.session;
+        return merged;
+    }
+}
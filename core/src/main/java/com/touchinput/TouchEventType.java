@@ -0,0 +1,14 @@
+package com.touchinput;
+
+// What a TouchEvent is
+enum TouchEventType {
+    PRESS,      // Mouse button down
+    RELEASE,    // Mouse button up
+    DRAG_START, // One finger started dragging: left press, or touch scrolling over a list
+    DRAG_END,   // ...and lifted, with its release velocity
+    SCROLL,     // Two-finger drag
+    PINCH,      // Pinch with PinchAction.SCROLL
+    FRAME,      // All contacts, for a screen touch handler
+    POINTER_DOWN, // A finger other than the primary landed (multi-pointer); button holds its slot
+    POINTER_UP    // ...and lifted
+}
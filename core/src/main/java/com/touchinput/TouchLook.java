@@ -0,0 +1,70 @@
+package com.touchinput;
+
+// Turns finger movement into camera deltas while no screen is open. Updated once per rendered
+// frame from Mouse.updateMouse, so the camera moves as smoothly as the game renders; deltas
+// are kept as doubles in cursor pixels, nothing is rounded away between frames.
+//
+// Only touches that land inside the look region (TouchConfig.lookRegion*, fractions of the
+// game window) steer the camera, so the rest of the screen stays free for on-screen controls.
+// Touches that land in a HUD zone belong to the zone and never steer.
+public class TouchLook {
+    private final double[] point = new double[2];
+    private final int[] gui = new int[2];
+    
+    private int session = -1;      // Touch session being followed or ignored
+    private boolean tracking = false;
+    private double lastX;
+    private double lastY;
+    private double deltaX;
+    private double deltaY;
+    
+    public void reset() {
+        session = -1;
+        tracking = false;
+    }
+    
+    // touchSession changes whenever a new first finger lands, so a quick lift and re-touch
+    // between two frames doesn't turn into a jump. zones is null with HUD zones off. Returns
+    // true if there is a delta to apply.
+    public boolean update(TouchConfig config, TouchTransform transform, HudZones zones, boolean touching,
+                          int touchSession, int touchX, int touchY) {
+        if (!touching) {
+            reset();
+            return false;
+        }
+        
+        transform.toWindowFraction(touchX, touchY, point);
+        double x = point[0] * transform.getWindowWidth();
+        double y = point[1] * transform.getWindowHeight();
+        
+        if (touchSession != session) {
+            session = touchSession;
+            tracking = point[0] >= config.lookRegionLeft && point[0] <= config.lookRegionRight
+                && point[1] >= config.lookRegionTop && point[1] <= config.lookRegionBottom;
+            if (tracking && zones != null) {
+                transform.toGui(touchX, touchY, gui);
+                tracking = zones.zoneAt(gui[0], gui[1]) == HudZones.NONE;
+            }
+            lastX = x;
+            lastY = y;
+            return false;
+        }
+        if (!tracking) {
+            return false;
+        }
+        
+        deltaX = (x - lastX) * config.lookSensitivity;
+        deltaY = (y - lastY) * config.lookSensitivity;
+        lastX = x;
+        lastY = y;
+        return deltaX != 0 || deltaY != 0;
+    }
+    
+    public double getDeltaX() {
+        return deltaX;
+    }
+    
+    public double getDeltaY() {
+        return deltaY;
+    }
+}
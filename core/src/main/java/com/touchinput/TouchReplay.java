@@ -0,0 +1,103 @@
+package com.touchinput;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a file written by TouchCapture, one event at a time.
+public class TouchReplay implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final String configJson;
+    private final int recordCount;
+    
+    private int recordIndex = 0;
+    private long timeMicros;
+    private int type;
+    private int code;
+    private int value;
+    
+    public TouchReplay(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            // Too big to map, and far bigger than any capture
+            close();
+            throw new IOException("Not a touch capture file: " + path);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        
+        if (buffer.remaining() < TouchCapture.FIXED_HEADER_SIZE || buffer.getInt() != TouchCapture.MAGIC) {
+            close();
+            throw new IOException("Not a touch capture file: " + path);
+        }
+        short version = buffer.getShort();
+        if (version != TouchCapture.VERSION) {
+            close();
+            throw new IOException("Unsupported capture version " + version + " in " + path);
+        }
+        buffer.getShort();
+        int count = buffer.getInt();
+        this.timeMicros = buffer.getLong();
+        
+        // A corrupt or truncated header must not size the config from garbage
+        int configLength = buffer.getInt();
+        if (count < 0 || configLength < 0 || configLength > buffer.remaining()) {
+            close();
+            throw new IOException("Not a touch capture file: " + path);
+        }
+        byte[] configBytes = new byte[configLength];
+        buffer.get(configBytes);
+        this.configJson = new String(configBytes, StandardCharsets.UTF_8);
+        
+        // Trust the file length over the header if the capture was cut short
+        this.recordCount = Math.min(count, buffer.remaining() / TouchCapture.RECORD_SIZE);
+    }
+    
+    public String getConfigJson() {
+        return configJson;
+    }
+    
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    // Advances to the next event, returns false at the end of the capture
+    public boolean next() {
+        if (recordIndex >= recordCount) {
+            return false;
+        }
+        recordIndex++;
+        
+        timeMicros += buffer.getInt() & 0xFFFFFFFFL;
+        type = buffer.getShort() & 0xFFFF;
+        code = buffer.getShort() & 0xFFFF;
+        value = buffer.getInt();
+        return true;
+    }
+    
+    public long timeMicros() {
+        return timeMicros;
+    }
+    
+    public int type() {
+        return type;
+    }
+    
+    public int code() {
+        return code;
+    }
+    
+    public int value() {
+        return value;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,283 @@
+package com.touchinput;
+
+// Multi-touch slot state (evdev protocol B), updated event by event on the reader thread
+// and summarised once per frame by endFrame().
+//
+// The primary contact is the first finger of a touch session. It stays primary until it
+// lifts; after that there is no primary until every finger is up again.
+//
+// Palm rejection happens here, before any contact reaches the gestures: a contact reported as
+// a palm (MT_TOOL_PALM) or larger than palmMaxTouchMajor is rejected for the rest of its life,
+// and one lighter than palmMinPressure is ignored until it presses harder. Rejected contacts
+// are not active, so nothing downstream ever sees them.
+//
+// A contact that lands outside the game window (windowed or output mapping, see setRegion) is
+// rejected the same way: it belongs to another application or another output.
+//
+// The device's contacts use slots 0 to DEVICE_SLOTS - 1. Contacts injected through the touch
+// socket get the slots above, so the two never overwrite each other's contacts.
+public class TouchSlots {
+    public static final int DEVICE_SLOTS = 10;
+    public static final int INJECTED_SLOTS = 10;
+    public static final int MAX_SLOTS = DEVICE_SLOTS + INJECTED_SLOTS;
+    
+    private static final int MT_TOOL_PALM = 2;
+    
+    private final TouchConfig config;
+    private final int[] trackingIds = new int[MAX_SLOTS];
+    private final int[] xs = new int[MAX_SLOTS];
+    private final int[] ys = new int[MAX_SLOTS];
+    private final int[] touchMajors = new int[MAX_SLOTS];
+    private final int[] pressures = new int[MAX_SLOTS];     // Peak so far, -1 until the device reports one
+    private final int[] toolTypes = new int[MAX_SLOTS];
+    private final boolean[] rejected = new boolean[MAX_SLOTS];
+    private final boolean[] pressed = new boolean[MAX_SLOTS]; // Reached palmMinPressure
+    private final boolean[] live = new boolean[MAX_SLOTS];    // Tracked and not rejected
+    private final boolean[] placed = new boolean[MAX_SLOTS];  // Landing position checked
+    private volatile TouchTransform region;
+    private int slot = 0;
+    private boolean touchKey = false;
+    
+    // Frame summary
+    private int activeCount = 0;
+    private int primarySlot = -1;
+    private boolean sessionActive = false;
+    private boolean liveContactRejected = false;
+    
+    // Tuning statistics, written by the reader thread only
+    private volatile long rejectedBySize = 0;
+    private volatile long rejectedByPressure = 0;
+    private volatile long rejectedOutside = 0;
+    private volatile int lastContactMajor = 0;
+    private volatile int lastContactPressure = -1;
+    
+    public TouchSlots(TouchConfig config) {
+        this.config = config;
+        reset();
+    }
+    
+    public void reset() {
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            trackingIds[i] = -1;
+            live[i] = false;
+        }
+        slot = 0;
+        touchKey = false;
+        activeCount = 0;
+        primarySlot = -1;
+        sessionActive = false;
+        liveContactRejected = false;
+    }
+    
+    public void selectSlot(int newSlot) {
+        // Contacts beyond MAX_SLOTS are ignored
+        slot = newSlot >= 0 && newSlot < MAX_SLOTS ? newSlot : -1;
+    }
+    
+    // The slot ABS_MT_SLOT last selected (-1 if it was out of range). The kernel only sends
+    // ABS_MT_SLOT when it changes, so anything that selects another slot in between has to
+    // put this back.
+    public int currentSlot() {
+        return slot;
+    }
+    
+    public void setTrackingId(int trackingId) {
+        if (slot < 0) return;
+        if (trackingId == -1) {
+            endContact(slot);
+        } else if (trackingIds[slot] == -1) {
+            // New contact
+            touchMajors[slot] = 0;
+            pressures[slot] = -1;
+            toolTypes[slot] = 0;
+            rejected[slot] = false;
+            pressed[slot] = false;
+            placed[slot] = false;
+        }
+        trackingIds[slot] = trackingId;
+    }
+    
+    public void setX(int x) {
+        if (slot >= 0) xs[slot] = x;
+    }
+    
+    public void setY(int y) {
+        if (slot >= 0) ys[slot] = y;
+    }
+    
+    public void setTouchMajor(int touchMajor) {
+        if (slot >= 0) touchMajors[slot] = Math.max(touchMajors[slot], touchMajor);
+    }
+    
+    public void setPressure(int pressure) {
+        if (slot >= 0) pressures[slot] = Math.max(pressures[slot], pressure);
+    }
+    
+    public void setToolType(int toolType) {
+        if (slot >= 0) toolTypes[slot] = toolType;
+    }
+    
+    // BTN_TOUCH: devices without tracking ids only tell us contact down/up. Only the device
+    // sends it, so it only lifts the device's contacts.
+    public void setTouching(boolean touching) {
+        touchKey = touching;
+        if (!touching) {
+            for (int i = 0; i < DEVICE_SLOTS; i++) {
+                if (trackingIds[i] != -1) {
+                    endContact(i);
+                    trackingIds[i] = -1;
+                }
+            }
+        }
+    }
+    
+    private boolean anyDeviceTracked() {
+        for (int i = 0; i < DEVICE_SLOTS; i++) {
+            if (trackingIds[i] != -1) return true;
+        }
+        return false;
+    }
+    
+    private void endContact(int index) {
+        if (trackingIds[index] == -1) return;
+        if (!rejected[index] && !pressed[index] && pressures[index] >= 0
+                && config.palmRejectionEnabled && config.palmMinPressure > 0) {
+            rejectedByPressure++;
+        }
+        lastContactMajor = touchMajors[index];
+        lastContactPressure = pressures[index];
+    }
+    
+    // Called on SYN_REPORT
+    public void endFrame() {
+        if (touchKey && !anyDeviceTracked()) {
+            // Contact without tracking ids, treat it as one finger in slot 0
+            trackingIds[0] = 0;
+            touchMajors[0] = 0;
+            pressures[0] = -1;
+            toolTypes[0] = 0;
+            rejected[0] = false;
+            pressed[0] = false;
+            placed[0] = false;
+        }
+        
+        int count = 0;
+        int lowest = -1;
+        liveContactRejected = false;
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            boolean wasLive = live[i];
+            live[i] = trackingIds[i] != -1 && accept(i);
+            if (wasLive && !live[i] && trackingIds[i] != -1) {
+                liveContactRejected = true;
+            }
+            if (live[i]) {
+                if (lowest < 0) lowest = i;
+                count++;
+            }
+        }
+        activeCount = count;
+        
+        if (count == 0) {
+            sessionActive = false;
+            primarySlot = -1;
+        } else if (!sessionActive) {
+            sessionActive = true;
+            primarySlot = lowest;
+        } else if (primarySlot >= 0 && !live[primarySlot]) {
+            primarySlot = -1;
+        }
+    }
+    
+    private boolean accept(int index) {
+        if (!placed[index]) {
+            // Only where a contact lands counts, it may slide off the window afterwards
+            placed[index] = true;
+            TouchTransform current = region;
+            if (current != null && !current.contains(xs[index], ys[index])) {
+                rejected[index] = true;
+                rejectedOutside++;
+            }
+        }
+        if (rejected[index]) {
+            return false;
+        }
+        if (!config.palmRejectionEnabled) {
+            pressed[index] = true;
+            return true;
+        }
+        if (toolTypes[index] == MT_TOOL_PALM
+                || (config.palmMaxTouchMajor > 0 && touchMajors[index] > config.palmMaxTouchMajor)) {
+            rejected[index] = true;
+            rejectedBySize++;
+            return false;
+        }
+        if (!pressed[index]) {
+            // Devices without pressure reporting are never held back
+            pressed[index] = config.palmMinPressure <= 0 || pressures[index] < 0
+                || pressures[index] >= config.palmMinPressure;
+        }
+        return pressed[index];
+    }
+    
+    // True if a contact that was active last frame was rejected in this one. To the gestures
+    // it looks like a lift, so whatever it started has to be cancelled rather than completed.
+    public boolean liveContactRejected() {
+        return liveContactRejected;
+    }
+    
+    public long getRejectedBySize() {
+        return rejectedBySize;
+    }
+    
+    public long getRejectedByPressure() {
+        return rejectedByPressure;
+    }
+    
+    public long getRejectedOutside() {
+        return rejectedOutside;
+    }
+    
+    // The compiled mapping whose window new contacts must land in; null accepts everything.
+    // Set by the client thread whenever it compiles one.
+    public void setRegion(TouchTransform region) {
+        this.region = region;
+    }
+    
+    // Peak TOUCH_MAJOR and PRESSURE of the most recent contact, for tuning thresholds
+    public int getLastContactMajor() {
+        return lastContactMajor;
+    }
+    
+    public int getLastContactPressure() {
+        return lastContactPressure;
+    }
+    
+    public int activeCount() {
+        return activeCount;
+    }
+    
+    // -1 if the session's first finger has lifted (or nothing is down)
+    public int primarySlot() {
+        return primarySlot;
+    }
+    
+    public boolean isActive(int index) {
+        return live[index];
+    }
+    
+    public int x(int index) {
+        return xs[index];
+    }
+    
+    public int y(int index) {
+        return ys[index];
+    }
+    
+    // Index of the n-th active slot, or -1
+    public int activeSlot(int n) {
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            if (live[i] && n-- == 0) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,376 @@
+package com.touchinput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Local socket for tools running next to the game (overlays, automated UI tests). Every touch
+// frame the reader publishes is sent to all connected clients, and clients can send frames of
+// their own, which enter the pipeline as evdev events just like the device's.
+//
+// Frame layout (little endian), the same in both directions:
+//   length (short, whole frame in bytes), version (byte), contact count (byte), time in micros (long),
+//   per contact: slot (byte), flags (byte, bit 0 = primary), x (int), y (int)
+// Coordinates are raw touch units. An injected frame lists every contact that is down, so a slot
+// missing from it has lifted; flags are ignored and a time of 0 means now.
+//
+// Times are on the device's clock: evdev timestamps, which are CLOCK_REALTIME, so microseconds
+// since the Unix epoch. Injected frames must use the same clock (or 0), since they share the
+// gestures' timing and the capture with the device's frames.
+//
+// Injected contacts get their own slots (TouchSlots.INJECTED_SLOTS, from DEVICE_SLOTS up), so
+// they never disturb a finger on the device, and they appear at those slots in sent frames.
+// One client injects at a time: while a client has contacts down, frames from the others are
+// refused.
+//
+// Each client has a bounded buffer of outgoing frames drained by its own sender thread. When the
+// buffer is full new frames are dropped for that client only, so a slow client never holds up
+// the reader.
+public class TouchSocketServer implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchSocketServer");
+    
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int CONTACT_SIZE = 10;
+    static final int FLAG_PRIMARY = 1;
+    
+    private static final int EV_SYN = 0x00;
+    private static final int EV_KEY = 0x01;
+    private static final int EV_ABS = 0x03;
+    private static final int ABS_MT_SLOT = 0x2f;
+    private static final int ABS_MT_POSITION_X = 0x35;
+    private static final int ABS_MT_POSITION_Y = 0x36;
+    private static final int ABS_MT_TRACKING_ID = 0x39;
+    private static final int SYN_REPORT = 0x00;
+    
+    // Worst case per injected frame: every slot moves (4 events) or lifts (2), plus SYN
+    private static final int MAX_FRAME_EVENTS = TouchSlots.INJECTED_SLOTS * 4 + 1;
+    
+    public interface Input {
+        // events holds count (type, code, value) triples, ending with SYN_REPORT
+        void inject(long timeMicros, int[] events, int count);
+    }
+    
+    private final Path path;
+    private final int bufferFrames;
+    private final Input input;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong injectedFrames = new AtomicLong();
+    private final AtomicLong refusedFrames = new AtomicLong();
+    private final AtomicReference<Client> injecting = new AtomicReference<>();
+    
+    private ServerSocketChannel server;
+    private volatile boolean running = false;
+    
+    public TouchSocketServer(Path path, int bufferFrames, Input input) {
+        this.path = path;
+        this.bufferFrames = bufferFrames;
+        this.input = input;
+    }
+    
+    public void start() throws IOException {
+        // A socket left behind by a crashed game blocks bind(); anything that isn't a socket is kept
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (!Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+                throw new IOException(path + " exists and is not a socket");
+            }
+            Files.delete(path);
+        }
+        
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(path));
+        running = true;
+        
+        Thread acceptThread = new Thread(this::acceptClients, "TouchSocketAccept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        
+        LOGGER.info("Touch socket listening on {}", path);
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public int getClientCount() {
+        return clients.size();
+    }
+    
+    // Frames not sent because a client's buffer was full
+    public long getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+    
+    public long getInjectedFrameCount() {
+        return injectedFrames.get();
+    }
+    
+    // Frames not injected because another client had contacts down
+    public long getRefusedFrameCount() {
+        return refusedFrames.get();
+    }
+    
+    public boolean hasClients() {
+        return !clients.isEmpty();
+    }
+    
+    // Called by the reader at the end of every frame. Encodes the live contacts once and hands
+    // the same bytes to every client without blocking.
+    public void publish(long timeMicros, TouchSlots slots) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        int count = slots.activeCount();
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + count * CONTACT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putShort((short) frame.capacity());
+        frame.put((byte) VERSION);
+        frame.put((byte) count);
+        frame.putLong(timeMicros);
+        for (int n = 0; n < count; n++) {
+            int slot = slots.activeSlot(n);
+            frame.put((byte) slot);
+            frame.put((byte) (slot == slots.primarySlot() ? FLAG_PRIMARY : 0));
+            frame.putInt(slots.x(slot));
+            frame.putInt(slots.y(slot));
+        }
+        frame.flip();
+        
+        for (Client client : clients) {
+            if (!client.outgoing.offer(frame.duplicate())) {
+                droppedFrames.incrementAndGet();
+            }
+        }
+    }
+    
+    private void acceptClients() {
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                Client client = new Client(channel, clientIds.incrementAndGet());
+                clients.add(client);
+                client.start();
+                LOGGER.info("Touch socket client {} connected ({} connected)", client.id, clients.size());
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.error("Touch socket stopped accepting clients", e);
+                }
+                return;
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            LOGGER.error("Error closing touch socket", e);
+        }
+        for (Client client : clients) {
+            client.close();
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove touch socket {}", path, e);
+        }
+        LOGGER.info("Touch socket closed ({} frames injected, {} refused, {} dropped for slow clients)",
+            injectedFrames.get(), refusedFrames.get(), droppedFrames.get());
+    }
+    
+    private class Client {
+        final SocketChannel channel;
+        final int id;
+        final BlockingQueue<ByteBuffer> outgoing = new ArrayBlockingQueue<>(bufferFrames);
+        
+        // Injection state: tracking id per slot (-1 = up), turned into evdev protocol B events
+        private final int[] trackingIds = new int[TouchSlots.INJECTED_SLOTS];
+        private final boolean[] seen = new boolean[TouchSlots.INJECTED_SLOTS];
+        private final int[] events = new int[MAX_FRAME_EVENTS * 3];
+        private int nextTrackingId = 0;
+        private boolean down = false;
+        
+        private Thread sender;
+        private Thread receiver;
+        private volatile boolean open = true;
+        
+        Client(SocketChannel channel, int id) {
+            this.channel = channel;
+            this.id = id;
+            Arrays.fill(trackingIds, -1);
+        }
+        
+        void start() {
+            sender = new Thread(this::send, "TouchSocketSend-" + id);
+            sender.setDaemon(true);
+            sender.start();
+            receiver = new Thread(this::receive, "TouchSocketReceive-" + id);
+            receiver.setDaemon(true);
+            receiver.start();
+        }
+        
+        private void send() {
+            try {
+                while (open) {
+                    ByteBuffer frame = outgoing.take();
+                    while (frame.hasRemaining()) {
+                        channel.write(frame);
+                    }
+                }
+            } catch (InterruptedException | IOException e) {
+                // Closed, or the client went away
+            }
+            close();
+        }
+        
+        private void receive() {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer contacts = ByteBuffer.allocate(255 * CONTACT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                while (open) {
+                    header.clear();
+                    readFully(header);
+                    header.flip();
+                    int length = header.getShort() & 0xFFFF;
+                    int version = header.get() & 0xFF;
+                    int count = header.get() & 0xFF;
+                    long timeMicros = header.getLong();
+                    if (version != VERSION || length != HEADER_SIZE + count * CONTACT_SIZE) {
+                        LOGGER.warn("Touch socket client {} sent a bad frame (version {}, length {}, {} contacts), disconnecting",
+                            id, version, length, count);
+                        break;
+                    }
+                    
+                    contacts.clear().limit(count * CONTACT_SIZE);
+                    readFully(contacts);
+                    contacts.flip();
+                    inject(timeMicros, contacts, count);
+                }
+            } catch (EOFException e) {
+                // Disconnected
+            } catch (IOException e) {
+                if (open) {
+                    LOGGER.warn("Touch socket client {} failed", id, e);
+                }
+            }
+            
+            // Lift whatever the client left down
+            if (down) {
+                inject(0, contacts.clear().limit(0), 0);
+            }
+            close();
+        }
+        
+        private void readFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException();
+                }
+            }
+        }
+        
+        private void inject(long timeMicros, ByteBuffer contacts, int count) {
+            if (injecting.get() != this && !injecting.compareAndSet(null, this)) {
+                // Another client's contacts are down; this one has none to lift
+                refusedFrames.incrementAndGet();
+                return;
+            }
+            
+            int n = 0;
+            Arrays.fill(seen, false);
+            for (int i = 0; i < count; i++) {
+                int slot = contacts.get() & 0xFF;
+                contacts.get(); // Flags
+                int x = contacts.getInt();
+                int y = contacts.getInt();
+                if (slot >= TouchSlots.INJECTED_SLOTS || seen[slot]) {
+                    continue;
+                }
+                seen[slot] = true;
+                if (trackingIds[slot] < 0) {
+                    trackingIds[slot] = nextTrackingId;
+                    nextTrackingId = (nextTrackingId + 1) & 0xFFFF;
+                }
+                // The tracking id goes out every frame, so a contact survives the slots being reset
+                // under it (device reopened, replay started)
+                n = put(n, EV_ABS, ABS_MT_SLOT, TouchSlots.DEVICE_SLOTS + slot);
+                n = put(n, EV_ABS, ABS_MT_TRACKING_ID, trackingIds[slot]);
+                n = put(n, EV_ABS, ABS_MT_POSITION_X, x);
+                n = put(n, EV_ABS, ABS_MT_POSITION_Y, y);
+            }
+            boolean anyDown = false;
+            for (int slot = 0; slot < TouchSlots.INJECTED_SLOTS; slot++) {
+                if (trackingIds[slot] >= 0 && !seen[slot]) {
+                    n = put(n, EV_ABS, ABS_MT_SLOT, TouchSlots.DEVICE_SLOTS + slot);
+                    n = put(n, EV_ABS, ABS_MT_TRACKING_ID, -1);
+                    trackingIds[slot] = -1;
+                }
+                anyDown |= seen[slot];
+            }
+            down = anyDown;
+            n = put(n, EV_SYN, SYN_REPORT, 0);
+            
+            input.inject(timeMicros != 0 ? timeMicros : realtimeMicros(), events, n / 3);
+            injectedFrames.incrementAndGet();
+            if (!anyDown) {
+                // All lifted, another client may inject now
+                injecting.compareAndSet(this, null);
+            }
+        }
+        
+        // Now on the evdev clock
+        private long realtimeMicros() {
+            Instant now = Instant.now();
+            return now.getEpochSecond() * 1_000_000L + now.getNano() / 1000;
+        }
+        
+        private int put(int n, int type, int code, int value) {
+            events[n] = type;
+            events[n + 1] = code;
+            events[n + 2] = value;
+            return n + 3;
+        }
+        
+        synchronized void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            clients.remove(this);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            sender.interrupt();
+            LOGGER.info("Touch socket client {} disconnected", id);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.touchinput;
+
+// Touch-to-screen mapping compiled into a single affine transform. Building it walks the
+// config (mapping mode, panel size, window placement), so it is done once and rebuilt only
+// when the framebuffer is resized, the GUI scale changes or the config is applied; mapping a
+// touch is then a few multiply-adds.
+//
+// Fullscreen: the whole panel is the game window. Windowed: the window's content starts at
+// (windowX, windowY) panel pixels and covers windowWidth * systemScale panel pixels, and
+// touches outside it belong to other applications. Output mapping: the panel is one output of
+// a larger desktop and the window is placed on the desktop, both in logical pixels; the chain
+// touch -> output -> desktop -> window folds into the same six coefficients.
+//
+// With a correction grid (TouchConfig.correction) the mapping is done in two steps instead:
+// touch -> normalized screen position, plus the interpolated offset there, -> framebuffer.
+// That is a constant four extra node lookups per axis.
+public final class TouchTransform {
+    // Raw touch -> framebuffer pixels: fb = ax * touchX + bx * touchY + cx (same for y)
+    private final double ax, bx, cx;
+    private final double ay, by, cy;
+    
+    // The same in two steps, used with a correction grid: normalized n = nax * touchX + nbx *
+    // touchY + ncx, fb = scaleX * (n + correction) + offsetX (same for y)
+    private final double nax, nbx, ncx;
+    private final double nay, nby, ncy;
+    private final double scaleX, scaleY, offsetX, offsetY;
+    private final CorrectionGrid correction;
+    
+    private final int framebufferWidth;
+    private final int framebufferHeight;
+    private final double guiScale;
+    private final int guiMaxX;
+    private final int guiMaxY;
+    private final double windowWidth;
+    private final double windowHeight;
+    private final boolean windowed;
+    
+    private TouchTransform(double[] normalized, double[] framing, CorrectionGrid correction, int framebufferWidth,
+                           int framebufferHeight, double guiScale, double windowWidth, double windowHeight, boolean windowed) {
+        this.nax = normalized[0];
+        this.nbx = normalized[1];
+        this.ncx = normalized[2];
+        this.nay = normalized[3];
+        this.nby = normalized[4];
+        this.ncy = normalized[5];
+        this.scaleX = framing[0];
+        this.scaleY = framing[1];
+        this.offsetX = framing[2];
+        this.offsetY = framing[3];
+        this.ax = nax * scaleX;
+        this.bx = nbx * scaleX;
+        this.cx = ncx * scaleX + offsetX;
+        this.ay = nay * scaleY;
+        this.by = nby * scaleY;
+        this.cy = ncy * scaleY + offsetY;
+        this.correction = correction;
+        this.framebufferWidth = framebufferWidth;
+        this.framebufferHeight = framebufferHeight;
+        this.guiScale = guiScale;
+        this.guiMaxX = Math.max(0, (int) (framebufferWidth / guiScale) - 1);
+        this.guiMaxY = Math.max(0, (int) (framebufferHeight / guiScale) - 1);
+        this.windowWidth = windowWidth;
+        this.windowHeight = windowHeight;
+        this.windowed = windowed;
+    }
+    
+    // windowWidth/Height are the window size in cursor coordinates; systemScale is panel
+    // pixels per cursor pixel (the compositor's scale)
+    public static TouchTransform compile(TouchConfig config, int framebufferWidth, int framebufferHeight,
+                                         double windowWidth, double windowHeight, double guiScale, double systemScale) {
+        // The mapping modes are all affine, so three points pin the normalized mapping down
+        double[] origin = new double[2];
+        double[] alongX = new double[2];
+        double[] alongY = new double[2];
+        config.mapNormalized(0, 0, origin);
+        config.mapNormalized(config.touchMaxX, 0, alongX);
+        config.mapNormalized(0, config.touchMaxY, alongY);
+        
+        // Normalized screen position -> framebuffer pixels
+        double scaleX, scaleY, offsetX, offsetY;
+        if (config.outputMapping) {
+            // Logical pixels map 1:1 to the window's cursor coordinates
+            double outputWidth = config.outputWidth > 0 ? config.outputWidth : config.screenWidth / systemScale;
+            double outputHeight = config.outputHeight > 0 ? config.outputHeight : config.screenHeight / systemScale;
+            double framebufferPerLogicalX = framebufferWidth / windowWidth;
+            double framebufferPerLogicalY = framebufferHeight / windowHeight;
+            scaleX = outputWidth * framebufferPerLogicalX;
+            scaleY = outputHeight * framebufferPerLogicalY;
+            offsetX = (config.outputX - config.windowX) * framebufferPerLogicalX;
+            offsetY = (config.outputY - config.windowY) * framebufferPerLogicalY;
+        } else if (config.windowedMapping) {
+            double panelPerFramebufferX = windowWidth * systemScale / framebufferWidth;
+            double panelPerFramebufferY = windowHeight * systemScale / framebufferHeight;
+            scaleX = config.screenWidth / panelPerFramebufferX;
+            scaleY = config.screenHeight / panelPerFramebufferY;
+            offsetX = -config.windowX / panelPerFramebufferX;
+            offsetY = -config.windowY / panelPerFramebufferY;
+        } else {
+            scaleX = framebufferWidth;
+            scaleY = framebufferHeight;
+            offsetX = 0;
+            offsetY = 0;
+        }
+        
+        double[] normalized = {
+            (alongX[0] - origin[0]) / config.touchMaxX,
+            (alongY[0] - origin[0]) / config.touchMaxY,
+            origin[0],
+            (alongX[1] - origin[1]) / config.touchMaxX,
+            (alongY[1] - origin[1]) / config.touchMaxY,
+            origin[1]
+        };
+        double[] framing = {scaleX, scaleY, offsetX, offsetY};
+        return new TouchTransform(normalized, framing, config.correction, framebufferWidth, framebufferHeight,
+            guiScale, windowWidth, windowHeight, config.windowedMapping || config.outputMapping);
+    }
+    
+    private double framebufferX(int touchX, int touchY) {
+        if (correction == null) {
+            return ax * touchX + bx * touchY + cx;
+        }
+        double x = nax * touchX + nbx * touchY + ncx;
+        double y = nay * touchX + nby * touchY + ncy;
+        return scaleX * (x + correction.sampleX(x, y)) + offsetX;
+    }
+    
+    private double framebufferY(int touchX, int touchY) {
+        if (correction == null) {
+            return ay * touchX + by * touchY + cy;
+        }
+        double x = nax * touchX + nbx * touchY + ncx;
+        double y = nay * touchX + nby * touchY + ncy;
+        return scaleY * (y + correction.sampleY(x, y)) + offsetY;
+    }
+    
+    // False for touches outside the game window (never in fullscreen mapping)
+    public boolean contains(int touchX, int touchY) {
+        if (!windowed) {
+            return true;
+        }
+        double x = framebufferX(touchX, touchY);
+        double y = framebufferY(touchX, touchY);
+        return x >= 0 && y >= 0 && x < framebufferWidth && y < framebufferHeight;
+    }
+    
+    // GUI coordinates, clamped to the screen
+    public int[] toGui(int touchX, int touchY) {
+        int[] out = new int[2];
+        toGui(touchX, touchY, out);
+        return out;
+    }
+    
+    // Same, into out[0] and out[1]
+    public void toGui(int touchX, int touchY, int[] out) {
+        int guiX = (int) (framebufferX(touchX, touchY) / guiScale);
+        int guiY = (int) (framebufferY(touchX, touchY) / guiScale);
+        out[0] = Math.max(0, Math.min(guiMaxX, guiX));
+        out[1] = Math.max(0, Math.min(guiMaxY, guiY));
+    }
+    
+    // Fractions of the window width and height, not clamped or rounded
+    public void toWindowFraction(int touchX, int touchY, double[] out) {
+        out[0] = framebufferX(touchX, touchY) / framebufferWidth;
+        out[1] = framebufferY(touchX, touchY) / framebufferHeight;
+    }
+    
+    // The normalized screen position a GUI position corresponds to, without correction: where
+    // the accuracy test's targets are, and where its taps were measured
+    public void guiToNormalized(double guiX, double guiY, double[] out) {
+        out[0] = (guiX * guiScale - offsetX) / scaleX;
+        out[1] = (guiY * guiScale - offsetY) / scaleY;
+    }
+    
+    // Multiplier from GUI coordinates to cursor coordinates
+    public double getCursorScale() {
+        return guiScale * windowWidth / framebufferWidth;
+    }
+    
+    public double getWindowWidth() {
+        return windowWidth;
+    }
+    
+    public double getWindowHeight() {
+        return windowHeight;
+    }
+}
@@ -0,0 +1,77 @@
+package com.touchinput;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalibrationSolverTest {
+    @Test
+    void orientationFitsRotatedPanel() {
+        // Panel mounted swapped and with Y inverted: screen x follows 1 - touch y, screen y follows touch x
+        TouchConfig config = new TouchConfig();
+        config.touchMaxX = 1599;
+        config.touchMaxY = 2559;
+        config.screenWidth = 2560;
+        config.screenHeight = 1600;
+        int[] topLeftScreen = {100, 80};
+        int[] bottomRightScreen = {2460, 1520};
+        int[] topLeftTouch = touchFor(config, topLeftScreen);
+        int[] bottomRightTouch = touchFor(config, bottomRightScreen);
+        
+        CalibrationSolver.solveOrientation(config, topLeftTouch, bottomRightTouch, topLeftScreen, bottomRightScreen);
+        
+        assertTrue(config.swapXY);
+        assertFalse(config.invertX);
+        assertTrue(config.invertY);
+        assertEquals(TouchConfig.MappingMode.CUSTOM, config.mappingMode);
+        // The fitted mapping puts both touches back where they were aimed
+        assertLandsOn(config, topLeftTouch, topLeftScreen);
+        assertLandsOn(config, bottomRightTouch, bottomRightScreen);
+    }
+    
+    @Test
+    void windowPlacementFromTwoTouches() {
+        TouchConfig config = new TouchConfig();
+        config.mappingMode = TouchConfig.MappingMode.NORMAL;
+        config.touchMaxX = 2560;
+        config.touchMaxY = 1600;
+        config.screenWidth = 2560;
+        config.screenHeight = 1600;
+        // Window at (300, 150) on the panel, system scale 1.5, 2 window pixels per GUI pixel
+        double panelPerGui = 1.5 * 2.0;
+        int[] topLeftTouch = {300 + (int) (10 * panelPerGui), 150 + (int) (10 * panelPerGui)};
+        int[] bottomRightTouch = {300 + (int) (310 * panelPerGui), 150 + (int) (190 * panelPerGui)};
+        
+        assertTrue(CalibrationSolver.solveWindowPlacement(config, topLeftTouch, bottomRightTouch, 10, 10, 310, 190, 2.0));
+        assertEquals(300, config.windowX);
+        assertEquals(150, config.windowY);
+        assertFalse(config.autoDetectSystemScale);
+        assertEquals(1.5, config.manualSystemScale, 1e-9);
+    }
+    
+    @Test
+    void windowPlacementRejectsTouchesThatDontSpan() {
+        TouchConfig config = new TouchConfig();
+        config.windowX = 42;
+        int[] touch = {500, 500};
+        
+        assertFalse(CalibrationSolver.solveWindowPlacement(config, touch, touch, 10, 10, 310, 190, 2.0));
+        assertEquals(42, config.windowX);
+    }
+    
+    // Raw touch that the swapped, Y-inverted panel reports for a screen position
+    private static int[] touchFor(TouchConfig config, int[] screen) {
+        double normX = screen[0] / (double) config.screenWidth;
+        double normY = screen[1] / (double) config.screenHeight;
+        return new int[]{(int) Math.round(normY * config.touchMaxX), (int) Math.round((1 - normX) * config.touchMaxY)};
+    }
+    
+    private static void assertLandsOn(TouchConfig config, int[] touch, int[] screen) {
+        double[] normalized = new double[2];
+        config.mapNormalized(touch[0], touch[1], normalized);
+        assertEquals(screen[0], normalized[0] * config.screenWidth, 2.0);
+        assertEquals(screen[1], normalized[1] * config.screenHeight, 2.0);
+    }
+}
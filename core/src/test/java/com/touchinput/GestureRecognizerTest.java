@@ -0,0 +1,99 @@
+package com.touchinput;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GestureRecognizerTest {
+    private final TouchConfig config = new TouchConfig();
+    private final List<String> actions = new ArrayList<>();
+    private TouchSlots slots;
+    private GestureRecognizer gestures;
+    
+    @BeforeEach
+    void setUp() {
+        slots = new TouchSlots(config);
+        gestures = new GestureRecognizer(config, new GestureRecognizer.Listener() {
+            @Override
+            public void onButton(long timeMicros, int button, boolean pressed, int x, int y) {
+                actions.add((pressed ? "press " : "release ") + button);
+            }
+            
+            @Override
+            public void onDragStart(long timeMicros, int fromX, int fromY, int x, int y) {
+                actions.add("drag start");
+            }
+            
+            @Override
+            public void onDragEnd(long timeMicros, int x, int y, double velocityX, double velocityY) {
+                actions.add("drag end");
+            }
+            
+            @Override
+            public void onScroll(long timeMicros, int fromX, int fromY, int toX, int toY) {
+                actions.add("scroll");
+            }
+            
+            @Override
+            public void onPinch(long timeMicros, int centerX, int centerY, double scale) {
+                actions.add("pinch");
+            }
+        });
+    }
+    
+    @Test
+    void quickTouchIsATap() {
+        down(0, 500, 500);
+        frame(100_000);
+        up(150_000);
+        
+        assertEquals(List.of("press 0", "release 0"), actions);
+    }
+    
+    @Test
+    void heldTouchIsALongPress() {
+        down(0, 500, 500);
+        frame(config.longPressMs * 1000L - 1);
+        assertEquals(List.of(), actions);
+        
+        frame(config.longPressMs * 1000L);
+        up(config.longPressMs * 1000L + 50_000);
+        
+        assertEquals(List.of("press 1", "release 1"), actions);
+    }
+    
+    @Test
+    void movedTouchIsADrag() {
+        down(0, 500, 500);
+        move(50_000, 500 + config.tapSlop + 1, 500);
+        up(100_000);
+        
+        assertEquals(List.of("drag start", "drag end"), actions);
+    }
+    
+    private void down(long timeMicros, int x, int y) {
+        slots.selectSlot(0);
+        slots.setTrackingId(1);
+        move(timeMicros, x, y);
+    }
+    
+    private void move(long timeMicros, int x, int y) {
+        slots.setX(x);
+        slots.setY(y);
+        frame(timeMicros);
+    }
+    
+    private void up(long timeMicros) {
+        slots.setTrackingId(-1);
+        frame(timeMicros);
+    }
+    
+    private void frame(long timeMicros) {
+        slots.endFrame();
+        gestures.onFrame(timeMicros, slots);
+    }
+}
@@ -0,0 +1,62 @@
+package com.touchinput;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class HudZonesTest {
+    private static final int WIDTH = 427;
+    private static final int HEIGHT = 240;
+    
+    @Test
+    void hotbarSlotsAndShortcuts() {
+        HudZones zones = new HudZones();
+        zones.update(new TouchConfig(), WIDTH, HEIGHT);
+        
+        int hotbarLeft = WIDTH / 2 - 91;
+        for (int slot = 0; slot < HudZones.HOTBAR_SLOTS; slot++) {
+            assertEquals(slot, zones.zoneAt(hotbarLeft + 1 + slot * 20 + 10, HEIGHT - 11));
+        }
+        assertEquals(HudZones.INVENTORY, zones.zoneAt(hotbarLeft + 182 + 4 + 10, HEIGHT - 11));
+        assertEquals(HudZones.CHAT, zones.zoneAt(10, 10));
+        assertEquals(HudZones.NONE, zones.zoneAt(WIDTH / 2, HEIGHT / 2));
+        assertEquals(HudZones.NONE, zones.zoneAt(-1, 0));
+        assertEquals(HudZones.NONE, zones.zoneAt(WIDTH, HEIGHT - 1));
+    }
+    
+    @Test
+    void tableMatchesZoneRectangles() {
+        HudZones zones = new HudZones();
+        zones.update(new TouchConfig(), WIDTH, HEIGHT);
+        
+        int[] bounds = new int[4];
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                int expected = HudZones.NONE;
+                for (int zone = 0; zone < HudZones.COUNT; zone++) {
+                    zones.getBounds(zone, bounds);
+                    if (zones.isEnabled(zone) && x >= bounds[0] && y >= bounds[1] && x < bounds[2] && y < bounds[3]) {
+                        expected = zone;
+                    }
+                }
+                assertEquals(expected, zones.zoneAt(x, y), "at " + x + ", " + y);
+            }
+        }
+    }
+    
+    @Test
+    void disabledShortcutsAndRebuilds() {
+        TouchConfig config = new TouchConfig();
+        HudZones zones = new HudZones();
+        zones.update(config, WIDTH, HEIGHT);
+        zones.update(config, WIDTH, HEIGHT);
+        assertEquals(1, zones.getRebuildCount());
+        
+        config.hudChatZone = false;
+        zones.update(config, WIDTH, HEIGHT);
+        assertEquals(2, zones.getRebuildCount());
+        assertFalse(zones.isEnabled(HudZones.CHAT));
+        assertEquals(HudZones.NONE, zones.zoneAt(10, 10));
+    }
+}
@@ -0,0 +1,86 @@
+package com.touchinput;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TouchEventQueueTest {
+    @Test
+    void consecutiveScrollsChain() {
+        TouchEventQueue queue = new TouchEventQueue(new TouchConfig());
+        queue.offer(TouchEvent.scroll(0, 0, 10, 10, 1));
+        queue.offer(TouchEvent.scroll(10, 10, 25, 30, 2));
+        
+        TouchEvent merged = queue.poll();
+        assertEquals(TouchEventType.SCROLL, merged.type);
+        assertEquals(0, merged.fromX);
+        assertEquals(0, merged.fromY);
+        assertEquals(25, merged.x);
+        assertEquals(30, merged.y);
+        assertNull(queue.poll());
+        assertEquals(1, queue.getCoalescedCount());
+    }
+    
+    @Test
+    void framesMergeOnlyWithTheSameContacts() {
+        TouchEventQueue queue = new TouchEventQueue(new TouchConfig());
+        queue.offer(frame(queue, 0));
+        queue.offer(frame(queue, 0));
+        queue.offer(frame(queue, 0, 1));
+        
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.poll().pointerCount);
+        assertEquals(2, queue.poll().pointerCount);
+    }
+    
+    @Test
+    void movesDroppedWhenFullButPressesKept() {
+        TouchConfig config = new TouchConfig();
+        config.coalesceMoves = false;
+        config.eventQueueCapacity = 2;
+        TouchEventQueue queue = new TouchEventQueue(config);
+        queue.offer(TouchEvent.pinch(0, 0, 1.1, 1));
+        queue.offer(TouchEvent.pinch(0, 0, 1.1, 2));
+        queue.offer(TouchEvent.pinch(0, 0, 1.1, 3));
+        queue.offer(TouchEvent.button(TouchEventType.PRESS, 0, 5, 5, 4));
+        
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+    }
+    
+    @Test
+    void staleEventsDroppedExceptReleases() {
+        TouchEventQueue queue = new TouchEventQueue(new TouchConfig());
+        queue.offer(TouchEvent.button(TouchEventType.PRESS, 0, 5, 5, 1));
+        queue.offer(TouchEvent.scroll(0, 0, 10, 10, 2));
+        TouchEvent release = TouchEvent.button(TouchEventType.RELEASE, 0, 5, 5, 3);
+        queue.offer(release);
+        
+        assertSame(release, queue.poll(System.nanoTime() + 1_000_000_000L));
+        assertNull(queue.poll());
+        assertEquals(2, queue.getDroppedCount());
+    }
+    
+    @Test
+    void frameBuffersAreReused() {
+        TouchEventQueue queue = new TouchEventQueue(new TouchConfig());
+        TouchEvent first = frame(queue, 0);
+        int[] buffer = first.pointers;
+        queue.offer(first);
+        queue.recycle(queue.poll());
+        
+        assertSame(buffer, queue.takeFrameBuffer());
+    }
+    
+    private static TouchEvent frame(TouchEventQueue queue, int... slots) {
+        int[] pointers = queue.takeFrameBuffer();
+        for (int n = 0; n < slots.length; n++) {
+            pointers[n * 3] = slots[n];
+            pointers[n * 3 + 1] = 100 * n;
+            pointers[n * 3 + 2] = 100 * n;
+        }
+        return TouchEvent.frame(pointers, slots.length, slots.length > 0 ? slots[0] : -1, 1);
+    }
+}
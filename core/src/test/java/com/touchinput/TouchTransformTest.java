@@ -0,0 +1,55 @@
+package com.touchinput;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TouchTransformTest {
+    // Touch units equal panel pixels, so expected positions can be worked out by hand
+    private static TouchConfig panel() {
+        TouchConfig config = new TouchConfig();
+        config.mappingMode = TouchConfig.MappingMode.NORMAL;
+        config.touchMaxX = 2560;
+        config.touchMaxY = 1600;
+        config.screenWidth = 2560;
+        config.screenHeight = 1600;
+        return config;
+    }
+    
+    @Test
+    void fullscreenMapsCornersAndCenter() {
+        TouchTransform transform = TouchTransform.compile(panel(), 1920, 1080, 1920, 1080, 2.0, 1.0);
+        
+        assertArrayEquals(new int[]{0, 0}, transform.toGui(0, 0));
+        assertArrayEquals(new int[]{480, 270}, transform.toGui(1280, 800));
+        // Clamped to the last GUI pixel
+        assertArrayEquals(new int[]{959, 539}, transform.toGui(2560, 1600));
+        assertTrue(transform.contains(2560, 1600));
+    }
+    
+    @Test
+    void windowedRoundTrip() {
+        TouchConfig config = panel();
+        config.windowedMapping = true;
+        config.windowX = 100;
+        config.windowY = 200;
+        // 1280 x 720 window at system scale 1.5 covers 1920 x 1080 panel pixels
+        TouchTransform transform = TouchTransform.compile(config, 1280, 720, 1280, 720, 1.0, 1.5);
+        
+        // A GUI position, placed on the panel, maps back to itself
+        int[] gui = new int[2];
+        for (int guiX = 0; guiX < 1280; guiX += 160) {
+            for (int guiY = 0; guiY < 720; guiY += 90) {
+                int touchX = 100 + (int) Math.round(guiX * 1.5 + 0.75);
+                int touchY = 200 + (int) Math.round(guiY * 1.5 + 0.75);
+                transform.toGui(touchX, touchY, gui);
+                assertArrayEquals(new int[]{guiX, guiY}, gui);
+                assertTrue(transform.contains(touchX, touchY));
+            }
+        }
+        assertFalse(transform.contains(50, 150));
+        assertFalse(transform.contains(100 + 1920, 200 + 540));
+    }
+}
@@ -0,0 +1,45 @@
+package com.touchinput;
+
+import net.minecraft.client.gui.screen.Screen;
+
+// Stands in for the game's Mouse: cursor moves and buttons reach the screen the way vanilla
+// delivers them (mouseMoved, mouseDragged while a button is held, mouseClicked/mouseReleased).
+// The harness runs at GUI scale 1, so cursor and GUI coordinates are the same.
+public class HarnessMouse implements TouchInputHandler.CursorTarget {
+    private final Screen screen;
+    private double x;
+    private double y;
+    private int activeButton = -1;
+    
+    public HarnessMouse(Screen screen) {
+        this.screen = screen;
+    }
+    
+    @Override
+    public void moveCursor(double x, double y) {
+        double deltaX = x - this.x;
+        double deltaY = y - this.y;
+        this.x = x;
+        this.y = y;
+        screen.mouseMoved(x, y);
+        if (activeButton != -1) {
+            screen.mouseDragged(x, y, activeButton, deltaX, deltaY);
+        }
+    }
+    
+    @Override
+    public void mouseButton(int button, boolean pressed) {
+        if (pressed) {
+            activeButton = button;
+            screen.mouseClicked(x, y, button);
+        } else {
+            activeButton = -1;
+            screen.mouseReleased(x, y, button);
+        }
+    }
+    
+    @Override
+    public void cancelButton() {
+        activeButton = -1;
+    }
+}
@@ -0,0 +1,125 @@
+package com.touchinput;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.narration.NarrationMessageBuilder;
+import net.minecraft.client.gui.widget.ClickableWidget;
+import net.minecraft.client.sound.SoundManager;
+import net.minecraft.text.Text;
+
+// Stands in for a Minecraft screen: a grid of widgets over part of the screen, with
+// everything that reaches the screen or a widget counted.
+public class HarnessScreen extends Screen {
+    private static final int WIDGET_SIZE = 40;
+    
+    // First press of each session, in order, as System.nanoTime()
+    final long[] pressNanos;
+    int presses = 0;
+    // Presses delivered again before the matching release (e.g. a widget fired twice)
+    int duplicatePresses = 0;
+    int releases = 0;
+    int drags = 0;
+    int widgetPresses = 0;
+    private boolean pressedSinceRelease = false;
+    // Set while the screen forwards an event to its focused widget, so it is counted once
+    private boolean forwarding = false;
+    
+    public HarnessScreen(int maxSessions, int widgetColumns, int widgetRows) {
+        super(Text.literal("Touch Harness"));
+        this.pressNanos = new long[maxSessions];
+        this.width = 4096;
+        this.height = 4096;
+        
+        for (int row = 0; row < widgetRows; row++) {
+            for (int column = 0; column < widgetColumns; column++) {
+                addDrawableChild(new HarnessWidget(column * WIDGET_SIZE, row * WIDGET_SIZE));
+            }
+        }
+    }
+    
+    void recordPress() {
+        if (pressedSinceRelease) {
+            duplicatePresses++;
+            return;
+        }
+        pressedSinceRelease = true;
+        if (presses < pressNanos.length) {
+            pressNanos[presses] = System.nanoTime();
+        }
+        presses++;
+    }
+    
+    @Override
+    public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        // A widget that takes the click records it in onClick
+        boolean handled = super.mouseClicked(mouseX, mouseY, button);
+        if (!handled) {
+            recordPress();
+        }
+        return handled;
+    }
+    
+    @Override
+    public boolean mouseReleased(double mouseX, double mouseY, int button) {
+        releases++;
+        pressedSinceRelease = false;
+        forwarding = true;
+        try {
+            return super.mouseReleased(mouseX, mouseY, button);
+        } finally {
+            forwarding = false;
+        }
+    }
+    
+    @Override
+    public boolean mouseDragged(double mouseX, double mouseY, int button, double deltaX, double deltaY) {
+        drags++;
+        forwarding = true;
+        try {
+            return super.mouseDragged(mouseX, mouseY, button, deltaX, deltaY);
+        } finally {
+            forwarding = false;
+        }
+    }
+    
+    private class HarnessWidget extends ClickableWidget {
+        HarnessWidget(int x, int y) {
+            super(x, y, WIDGET_SIZE, WIDGET_SIZE, Text.literal("w"));
+        }
+        
+        @Override
+        public void onClick(double mouseX, double mouseY) {
+            widgetPresses++;
+            recordPress();
+        }
+        
+        // With direct dispatch, drags and the release of a widget press go to the widget
+        @Override
+        public void onRelease(double mouseX, double mouseY) {
+            if (!forwarding) {
+                releases++;
+                pressedSinceRelease = false;
+            }
+        }
+        
+        @Override
+        protected void onDrag(double mouseX, double mouseY, double deltaX, double deltaY) {
+            if (!forwarding) {
+                drags++;
+            }
+        }
+        
+        @Override
+        protected void renderWidget(DrawContext context, int mouseX, int mouseY, float delta) {
+        }
+        
+        @Override
+        protected void appendClickableNarrations(NarrationMessageBuilder builder) {
+        }
+        
+        @Override
+        public void playDownSound(SoundManager soundManager) {
+            // No sound system outside the game
+        }
+    }
+}
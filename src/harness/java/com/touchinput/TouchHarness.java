@@ -0,0 +1,201 @@
+package com.touchinput;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless end-to-end run of the touch pipeline: a virtual device writes raw input_event
+// records into a FIFO (or a regular file), the real reader decodes them, and a fake screen
+// stands in for Minecraft on a simulated client frame loop.
+//
+// Usage: TouchHarness [--sessions N] [--fingers N] [--moves N] [--rate EVENTS_PER_SEC]
+//                     [--frame-hz HZ] [--device PATH] [--file]
+//
+// With --file the whole stream is written to a regular file first and then read as fast as
+// possible, which measures decoding throughput; latency is only meaningful for a FIFO.
+// Exits with status 1 if any session did not produce exactly one press and one release.
+public class TouchHarness {
+    // Identity mapping: touch units == GUI pixels
+    private static final int SURFACE_SIZE = 4096;
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int sessions = Integer.parseInt(options.getOrDefault("sessions", "2000"));
+        int fingers = Integer.parseInt(options.getOrDefault("fingers", "1"));
+        int moves = Integer.parseInt(options.getOrDefault("moves", "4"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "4000"));
+        int frameHz = Integer.parseInt(options.getOrDefault("frame-hz", "60"));
+        boolean regularFile = options.containsKey("file");
+        TouchConfig.DispatchMode dispatchMode = TouchConfig.DispatchMode.valueOf(
+            options.getOrDefault("dispatch", "mouse").toUpperCase(Locale.ROOT));
+        
+        Path device = options.containsKey("device")
+            ? Path.of(options.get("device"))
+            : Files.createTempDirectory("touch-harness").resolve(regularFile ? "events.bin" : "events.fifo");
+        if (!regularFile && !Files.exists(device)) {
+            createFifo(device);
+        }
+        
+        TouchConfig config = new TouchConfig();
+        config.touchDevicePath = device.toString();
+        config.mappingMode = TouchConfig.MappingMode.NORMAL;
+        config.touchMaxX = SURFACE_SIZE;
+        config.touchMaxY = SURFACE_SIZE;
+        config.screenWidth = SURFACE_SIZE;
+        config.screenHeight = SURFACE_SIZE;
+        config.dispatchMode = dispatchMode;
+        
+        TouchInputHandler handler = new TouchInputHandler(config);
+        HarnessScreen screen = new HarnessScreen(sessions, 10, 10);
+        long[] sessionNanos = new long[sessions];
+        
+        System.out.printf("Touch harness: %d sessions, %d finger(s), %d move frames, %s, client at %d Hz, %s dispatch%n",
+            sessions, fingers, moves, regularFile ? "regular file" : rate + " events/s into a FIFO", frameHz,
+            dispatchMode.getDisplayName().toLowerCase(Locale.ROOT));
+        
+        AtomicLong eventsWritten = new AtomicLong();
+        Thread generator = new Thread(() -> {
+            try (OutputStream out = new FileOutputStream(device.toFile())) {
+                VirtualTouchDevice virtualDevice = new VirtualTouchDevice(out, regularFile ? 0 : rate);
+                for (int i = 0; i < sessions; i++) {
+                    // Spread taps so some land on widgets and some on empty space
+                    int x = 10 + (i * 97) % (SURFACE_SIZE - 400);
+                    int y = 10 + (i * 61) % (SURFACE_SIZE - 400);
+                    sessionNanos[i] = virtualDevice.writeSession(fingers, moves, x, y, 60, 3);
+                }
+                eventsWritten.set(virtualDevice.getEventsWritten());
+                
+                if (!regularFile) {
+                    // Keep the FIFO open so the reader doesn't spin on EOF while the client catches up
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Thread.sleep(50);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Done
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "VirtualTouchDevice");
+        
+        generator.start();
+        if (regularFile) {
+            // Read the finished file as fast as possible
+            generator.join();
+        }
+        
+        handler.startReader();
+        
+        // A fullscreen window the size of the touch surface at GUI scale 1
+        TouchTransform transform = TouchTransform.compile(config, SURFACE_SIZE, SURFACE_SIZE, SURFACE_SIZE, SURFACE_SIZE, 1.0, 1.0);
+        HarnessMouse mouse = new HarnessMouse(screen);
+        
+        // Client frame loop
+        long frameNanos = 1_000_000_000L / frameHz;
+        long startNanos = System.nanoTime();
+        long lastReleaseNanos = startNanos;
+        long idleDeadline = Long.MAX_VALUE;
+        int frames = 0;
+        
+        while (screen.releases < sessions && System.nanoTime() < idleDeadline) {
+            long frameStart = System.nanoTime();
+            int releasesBefore = screen.releases;
+            
+            handler.processTouchEvents(screen, transform, mouse);
+            frames++;
+            
+            if (screen.releases != releasesBefore) {
+                lastReleaseNanos = System.nanoTime();
+            }
+            if (!generator.isAlive() || eventsWritten.get() > 0) {
+                // Generator finished: give the pipeline a second to drain
+                idleDeadline = Math.min(idleDeadline, System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+            }
+            
+            long sleep = frameNanos - (System.nanoTime() - frameStart);
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+        }
+        
+        handler.stopReader();
+        generator.interrupt();
+        generator.join();
+        System.out.printf("Reader threads alive after stop: %d%n", handler.getAliveReaderCount());
+        System.out.printf("Queue: %d events coalesced, %d dropped%n",
+            handler.getCoalescedEventCount(), handler.getDroppedEventCount());
+        
+        report(screen, sessions, sessionNanos, eventsWritten.get(), startNanos, lastReleaseNanos, frames, regularFile);
+        System.exit(isCorrect(screen, sessions) && handler.getAliveReaderCount() == 0 ? 0 : 1);
+    }
+    
+    private static boolean isCorrect(HarnessScreen screen, int sessions) {
+        return screen.presses == sessions && screen.duplicatePresses == 0 && screen.releases == sessions;
+    }
+    
+    private static void report(HarnessScreen screen, int sessions, long[] sessionNanos, long events,
+                               long startNanos, long endNanos, int frames, boolean regularFile) {
+        double seconds = (endNanos - startNanos) / 1e9;
+        System.out.printf("Events: %d in %.3f s (%.0f events/s end to end), %d client frames%n",
+            events, seconds, events / seconds, frames);
+        System.out.printf("Dispatched: %d presses (%d on widgets, %d duplicates), %d releases, %d drags%n",
+            screen.presses + screen.duplicatePresses, screen.widgetPresses, screen.duplicatePresses,
+            screen.releases, screen.drags);
+        
+        if (!regularFile) {
+            int matched = Math.min(sessions, Math.min(screen.presses, screen.pressNanos.length));
+            long[] latencies = new long[matched];
+            for (int i = 0; i < matched; i++) {
+                latencies[i] = screen.pressNanos[i] - sessionNanos[i];
+            }
+            Arrays.sort(latencies);
+            if (matched > 0) {
+                System.out.printf("Press latency (written -> dispatched): p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                    latencies[matched - 1] / 1e6);
+            }
+        }
+        
+        if (isCorrect(screen, sessions)) {
+            System.out.println("Correctness: OK, every session produced exactly one press and one release");
+        } else {
+            System.out.printf("Correctness: FAILED, expected %d presses and %d releases%n", sessions, sessions);
+        }
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1e6;
+    }
+    
+    private static void createFifo(Path path) throws IOException, InterruptedException {
+        Process mkfifo = new ProcessBuilder("mkfifo", path.toString()).inheritIO().start();
+        if (mkfifo.waitFor() != 0) {
+            throw new IOException("mkfifo failed for " + path + ", try --file");
+        }
+    }
+    
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "");
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,115 @@
+package com.touchinput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.LockSupport;
+
+// Writes synthetic multi-touch (protocol B) gestures as raw 24-byte input_event records,
+// paced to a target event rate. Each gesture is a touch session: every finger goes down,
+// moves for a number of frames and lifts again.
+public class VirtualTouchDevice {
+    static final int EV_SYN = 0x00;
+    static final int EV_KEY = 0x01;
+    static final int EV_ABS = 0x03;
+    static final int SYN_REPORT = 0x00;
+    static final int BTN_TOUCH = 0x14a;
+    static final int ABS_MT_SLOT = 0x2f;
+    static final int ABS_MT_POSITION_X = 0x35;
+    static final int ABS_MT_POSITION_Y = 0x36;
+    static final int ABS_MT_TRACKING_ID = 0x39;
+    
+    private static final int EVENT_SIZE = 24;
+    
+    private final OutputStream out;
+    private final int eventsPerSecond;
+    private final ByteBuffer frame = ByteBuffer.allocate(EVENT_SIZE * 64).order(ByteOrder.LITTLE_ENDIAN);
+    
+    private long startNanos = -1;
+    private long eventsWritten = 0;
+    private int nextTrackingId = 0;
+    
+    // eventsPerSecond <= 0 writes as fast as the reader accepts
+    public VirtualTouchDevice(OutputStream out, int eventsPerSecond) {
+        this.out = out;
+        this.eventsPerSecond = eventsPerSecond;
+    }
+    
+    public long getEventsWritten() {
+        return eventsWritten;
+    }
+    
+    // Writes one touch session and returns System.nanoTime() of the moment its first frame was written
+    public long writeSession(int fingers, int moveFrames, int x, int y, int spacing, int step) throws IOException {
+        int firstTrackingId = nextTrackingId;
+        nextTrackingId += fingers;
+        
+        // Down
+        for (int finger = 0; finger < fingers; finger++) {
+            slot(finger);
+            put(EV_ABS, ABS_MT_TRACKING_ID, firstTrackingId + finger);
+            put(EV_ABS, ABS_MT_POSITION_X, x + finger * spacing);
+            put(EV_ABS, ABS_MT_POSITION_Y, y);
+        }
+        put(EV_KEY, BTN_TOUCH, 1);
+        long downNanos = flushFrame();
+        
+        // Move
+        for (int move = 1; move <= moveFrames; move++) {
+            for (int finger = 0; finger < fingers; finger++) {
+                slot(finger);
+                put(EV_ABS, ABS_MT_POSITION_X, x + finger * spacing + move * step);
+                put(EV_ABS, ABS_MT_POSITION_Y, y + move * step);
+            }
+            flushFrame();
+        }
+        
+        // Up
+        for (int finger = 0; finger < fingers; finger++) {
+            slot(finger);
+            put(EV_ABS, ABS_MT_TRACKING_ID, -1);
+        }
+        put(EV_KEY, BTN_TOUCH, 0);
+        flushFrame();
+        
+        return downNanos;
+    }
+    
+    private void slot(int finger) {
+        put(EV_ABS, ABS_MT_SLOT, finger);
+    }
+    
+    private void put(int type, int code, int value) {
+        // The reader only needs monotonic, plausible timestamps
+        long micros = System.currentTimeMillis() * 1000L;
+        frame.putLong(micros / 1_000_000L);
+        frame.putLong(micros % 1_000_000L);
+        frame.putShort((short) type);
+        frame.putShort((short) code);
+        frame.putInt(value);
+    }
+    
+    private long flushFrame() throws IOException {
+        put(EV_SYN, SYN_REPORT, 0);
+        int events = frame.position() / EVENT_SIZE;
+        
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+        }
+        if (eventsPerSecond > 0) {
+            long dueNanos = startNanos + eventsWritten * 1_000_000_000L / eventsPerSecond;
+            long waitNanos;
+            while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+        
+        long writtenAt = System.nanoTime();
+        out.write(frame.array(), 0, frame.position());
+        out.flush();
+        frame.clear();
+        eventsWritten += events;
+        return writtenAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.touchinput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-frame cost of drawing debug dots. Iterations are shorter than the dot lifetime and the
+// dots are re-recorded before each one, so every frame draws all of them.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickVisualizerBenchmark {
+    @Param({"1", "10", "50"})
+    public int dots;
+    
+    private long fills;
+    private final ClickVisualizer.FillTarget target = (x1, y1, x2, y2, color) -> fills += color;
+    
+    @Setup(Level.Iteration)
+    public void recordDots() {
+        ClickVisualizer.DEBUG_ENABLED = true;
+        ClickVisualizer.clear();
+        for (int i = 0; i < dots; i++) {
+            ClickVisualizer.recordClick(20 + i * 7, 40 + i * 3);
+        }
+    }
+    
+    @TearDown(Level.Iteration)
+    public void clearDots() {
+        ClickVisualizer.clear();
+    }
+    
+    @Benchmark
+    public long drawClicks() {
+        ClickVisualizer.drawClicks(target);
+        return fills;
+    }
+}
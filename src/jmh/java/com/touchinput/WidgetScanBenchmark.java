@@ -0,0 +1,97 @@
+package com.touchinput;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.narration.NarrationMessageBuilder;
+import net.minecraft.client.gui.widget.ClickableWidget;
+import net.minecraft.client.sound.SoundManager;
+import net.minecraft.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The widget scan in simulateMouseClick, on a screen with widgetCount buttons in a grid.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetScanBenchmark {
+    private static final int WIDGET_SIZE = 20;
+    private static final int COLUMNS = 40;
+    
+    @Param({"10", "100", "1000"})
+    public int widgetCount;
+    
+    // Where the tap lands: on the first widget, on the last one scanned, or on empty space
+    @Param({"FIRST", "LAST", "MISS"})
+    public String target;
+    
+    private TouchInputHandler handler;
+    private BenchScreen screen;
+    private int tapX;
+    private int tapY;
+    
+    @Setup
+    public void setup() {
+        handler = new TouchInputHandler(new TouchConfig());
+        screen = new BenchScreen(widgetCount);
+        
+        int hit = switch (target) {
+            case "FIRST" -> 0;
+            case "LAST" -> widgetCount - 1;
+            default -> -1;
+        };
+        if (hit >= 0) {
+            tapX = (hit % COLUMNS) * WIDGET_SIZE + WIDGET_SIZE / 2;
+            tapY = (hit / COLUMNS) * WIDGET_SIZE + WIDGET_SIZE / 2;
+        } else {
+            tapX = COLUMNS * WIDGET_SIZE + 50;
+            tapY = 5;
+        }
+    }
+    
+    @Benchmark
+    public void tap() {
+        handler.simulateMouseClick(screen, tapX, tapY, 0, true);
+    }
+    
+    static class BenchScreen extends Screen {
+        BenchScreen(int widgetCount) {
+            super(Text.literal("Benchmark"));
+            for (int i = 0; i < widgetCount; i++) {
+                addDrawableChild(new BenchWidget((i % COLUMNS) * WIDGET_SIZE, (i / COLUMNS) * WIDGET_SIZE));
+            }
+        }
+    }
+    
+    static class BenchWidget extends ClickableWidget {
+        BenchWidget(int x, int y) {
+            super(x, y, WIDGET_SIZE, WIDGET_SIZE, Text.literal("w"));
+        }
+        
+        @Override
+        protected void renderWidget(DrawContext context, int mouseX, int mouseY, float delta) {
+        }
+        
+        @Override
+        protected void appendClickableNarrations(NarrationMessageBuilder builder) {
+        }
+        
+        @Override
+        public void playDownSound(SoundManager soundManager) {
+            // No sound system outside the game
+        }
+    }
+}
@@ -18,6 +18,15 @@ public class ClickVisualizer {
     }
     
     public static void drawClicks(DrawContext context) {
+        drawClicks(context::fill);
+    }
+    
+    // Drawing goes through this so the dot rendering can run without a real DrawContext
+    interface FillTarget {
+        void fill(int x1, int y1, int x2, int y2, int color);
+    }
+    
+    static void drawClicks(FillTarget context) {
         if (!DEBUG_ENABLED) return;
         
         long currentTime = System.currentTimeMillis();
@@ -40,7 +49,7 @@ public class ClickVisualizer {
         });
     }
     
-    private static void drawFilledCircle(DrawContext context, int centerX, int centerY, int radius, int color) {
+    private static void drawFilledCircle(FillTarget context, int centerX, int centerY, int radius, int color) {
         // Draw a filled circle using multiple calls
         for (int y = -radius; y <= radius; y++) {
             for (int x = -radius; x <= radius; x++) {
@@ -51,6 +60,10 @@ public class ClickVisualizer {
         }
     }
     
+    static void clear() {
+        clickPoints.clear();
+    }
+    
     private static class ClickPoint {
         final int x;
         final int y;
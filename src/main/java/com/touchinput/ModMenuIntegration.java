@@ -9,7 +9,7 @@ public class ModMenuIntegration implements ModMenuApi {
         return parent -> {
             // Use the EXISTING config from TouchInputHandler, not a new one!
             TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
-            TouchConfig config = handler != null ? handler.getConfig() : TouchConfig.load();
+            TouchConfig config = handler != null && handler.isReady() ? handler.getConfig() : TouchConfig.load();
             return new TouchConfigScreen(parent, config);
         };
     }
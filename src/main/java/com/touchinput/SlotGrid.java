@@ -0,0 +1,152 @@
+package com.touchinput;
+
+import com.touchinput.mixin.HandledScreenMixin;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.screen.slot.Slot;
+
+import java.util.List;
+
+// Slot lookup for inventory screens. Slots aren't children of the screen, so they are bucketed
+// into a grid of CELL-sized cells when the screen opens and a tap only looks at the slots in the
+// cell under the finger.
+//
+// Bounds are kept relative to the screen's origin, which moves (the recipe book shifts it). A
+// hit is checked against the live slot, and the grid is rebuilt when the slots have changed
+// since it was built (creative tabs swap them).
+public class SlotGrid {
+    // Vanilla lays slots out 18 pixels apart; a slot is hit 1 pixel around its 16x16 icon
+    private static final int CELL = 18;
+    private static final int SLOT_SIZE = 16;
+    
+    private final HandledScreen<?> screen;
+    
+    private int slotCount;
+    private int[] builtX = new int[0];
+    private int[] builtY = new int[0];
+    private int minX;
+    private int minY;
+    private int columns;
+    private int rows;
+    private int[] cellStart = new int[1]; // Cell c holds cellSlots[cellStart[c] .. cellStart[c + 1])
+    private int[] cellSlots = new int[0];
+    
+    public SlotGrid(HandledScreen<?> screen) {
+        this.screen = screen;
+        build();
+    }
+    
+    public HandledScreen<?> getScreen() {
+        return screen;
+    }
+    
+    private void build() {
+        List<Slot> slots = screen.getScreenHandler().slots;
+        slotCount = slots.size();
+        builtX = new int[slotCount];
+        builtY = new int[slotCount];
+        
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        for (int i = 0; i < slotCount; i++) {
+            Slot slot = slots.get(i);
+            builtX[i] = slot.x;
+            builtY[i] = slot.y;
+            minX = Math.min(minX, slot.x - 1);
+            minY = Math.min(minY, slot.y - 1);
+            maxX = Math.max(maxX, slot.x + SLOT_SIZE + 1);
+            maxY = Math.max(maxY, slot.y + SLOT_SIZE + 1);
+        }
+        if (slotCount == 0) {
+            columns = 0;
+            rows = 0;
+            cellStart = new int[1];
+            cellSlots = new int[0];
+            return;
+        }
+        columns = (maxX - minX + CELL - 1) / CELL;
+        rows = (maxY - minY + CELL - 1) / CELL;
+        
+        // Count, prefix-sum, fill: a slot lands in every cell its bounds overlap (at most 2x2)
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < slotCount; i++) {
+            forEachCell(i, (cell, slot) -> cellStart[cell + 1]++);
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellSlots = new int[cellStart[columns * rows]];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < slotCount; i++) {
+            forEachCell(i, (cell, slot) -> cellSlots[fill[cell]++] = slot);
+        }
+    }
+    
+    private interface CellVisitor {
+        void visit(int cell, int slot);
+    }
+    
+    private void forEachCell(int slot, CellVisitor visitor) {
+        int left = (builtX[slot] - 1 - minX) / CELL;
+        int top = (builtY[slot] - 1 - minY) / CELL;
+        int right = (builtX[slot] + SLOT_SIZE - minX) / CELL;
+        int bottom = (builtY[slot] + SLOT_SIZE - minY) / CELL;
+        for (int row = top; row <= bottom && row < rows; row++) {
+            for (int column = left; column <= right && column < columns; column++) {
+                visitor.visit(row * columns + column, slot);
+            }
+        }
+    }
+    
+    // The enabled slot under the GUI position, or null
+    public Slot slotAt(int guiX, int guiY) {
+        List<Slot> slots = screen.getScreenHandler().slots;
+        if (slots.size() != slotCount) {
+            build();
+        }
+        
+        Slot hit = lookup(slots, guiX, guiY);
+        if (hit == null && moved(slots)) {
+            // A miss is the only case a moved slot can hide in; check, and look again
+            build();
+            hit = lookup(slots, guiX, guiY);
+        }
+        return hit;
+    }
+    
+    private Slot lookup(List<Slot> slots, int guiX, int guiY) {
+        HandledScreenMixin origin = (HandledScreenMixin) screen;
+        int x = guiX - origin.getOriginX();
+        int y = guiY - origin.getOriginY();
+        if (x < minX || y < minY) {
+            return null;
+        }
+        int column = (x - minX) / CELL;
+        int row = (y - minY) / CELL;
+        if (column >= columns || row >= rows) {
+            return null;
+        }
+        
+        int cell = row * columns + column;
+        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+            Slot slot = slots.get(cellSlots[k]);
+            // Same bounds as HandledScreen.isPointOverSlot
+            if (slot.isEnabled() && x >= slot.x - 1 && x < slot.x + SLOT_SIZE + 1
+                    && y >= slot.y - 1 && y < slot.y + SLOT_SIZE + 1) {
+                return slot;
+            }
+        }
+        return null;
+    }
+    
+    private boolean moved(List<Slot> slots) {
+        for (int i = 0; i < slotCount; i++) {
+            Slot slot = slots.get(i);
+            if (slot.x != builtX[i] || slot.y != builtY[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+package com.touchinput;
+
+import com.touchinput.mixin.HandledScreenMixin;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+import net.minecraft.screen.slot.SlotActionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+// Touch-native inventory handling. Gestures that start on a slot go straight to the screen's
+// slot click handling (HandledScreen.onMouseClick), the same call a mouse click ends in:
+//
+//   tap                      -> pick up or place the stack (left click)
+//   double-tap               -> collect all matching items onto the held stack
+//   long-press               -> split the stack, or place one item (right click)
+//   drag from a slot         -> spread the stack evenly over every slot the finger crosses
+//                               (picks the stack up first if nothing is held)
+//
+// Gestures that start anywhere else are left to the normal dispatch.
+public class SlotTouch {
+    private static final Logger LOGGER = LoggerFactory.getLogger("SlotTouch");
+    
+    // Quick craft stages and slot id for "no slot", see ScreenHandler
+    private static final int QUICK_CRAFT_START = 0;
+    private static final int QUICK_CRAFT_ADD = 1;
+    private static final int QUICK_CRAFT_END = 2;
+    private static final int QUICK_CRAFT_EVEN = 0;
+    private static final int NO_SLOT = -999;
+    
+    private final TouchConfig config;
+    
+    private SlotGrid grid;
+    private int pressedButton = -1;     // Press that went to a slot; its release is swallowed
+    private boolean distributing = false;
+    private boolean[] visited = new boolean[0];
+    private Slot lastTapSlot;
+    private long lastTapMicros;
+    
+    public SlotTouch(TouchConfig config) {
+        this.config = config;
+    }
+    
+    // Called when a screen is initialized (opened or resized)
+    public void onScreenOpen(Screen screen) {
+        if (grid != null && grid.getScreen() != screen) {
+            reset();
+        }
+        grid = screen instanceof HandledScreen<?> handled ? new SlotGrid(handled) : null;
+    }
+    
+    // Forgets the gesture in progress, e.g. because its screen closed
+    public void reset() {
+        pressedButton = -1;
+        distributing = false;
+        lastTapSlot = null;
+    }
+    
+    // Called with the current screen before anything else; drops the grid and any gesture
+    // once their screen has closed
+    public void track(Screen currentScreen) {
+        if (grid != null && grid.getScreen() != currentScreen) {
+            reset();
+            grid = null;
+        }
+    }
+    
+    private boolean active(Screen currentScreen) {
+        track(currentScreen);
+        return config.touchSlotsEnabled && grid != null;
+    }
+    
+    public boolean isDistributing() {
+        return distributing;
+    }
+    
+    // Returns true if the press landed on a slot and was handled
+    public boolean press(Screen currentScreen, int button, int guiX, int guiY, long timeMicros) {
+        if (!active(currentScreen) || button > GestureRecognizer.BUTTON_RIGHT || pressedButton >= 0 || distributing) {
+            return false;
+        }
+        Slot slot = grid.slotAt(guiX, guiY);
+        if (slot == null) {
+            return false;
+        }
+        
+        SlotActionType action = SlotActionType.PICKUP;
+        if (button == GestureRecognizer.BUTTON_LEFT) {
+            if (slot == lastTapSlot && timeMicros - lastTapMicros <= config.doubleTapMs * 1000L
+                    && !handler().getCursorStack().isEmpty()) {
+                action = SlotActionType.PICKUP_ALL;
+                lastTapSlot = null;
+            } else {
+                lastTapSlot = slot;
+                lastTapMicros = timeMicros;
+            }
+        }
+        click(slot, button, action);
+        pressedButton = button;
+        return true;
+    }
+    
+    // Returns true if the release belongs to a press that went to a slot
+    public boolean release(int button) {
+        if (pressedButton != button) {
+            return false;
+        }
+        pressedButton = -1;
+        return true;
+    }
+    
+    // Returns true if the drag started on a slot with something to spread
+    public boolean dragStart(Screen currentScreen, int fromX, int fromY) {
+        if (!active(currentScreen) || pressedButton >= 0 || distributing) {
+            return false;
+        }
+        Slot slot = grid.slotAt(fromX, fromY);
+        if (slot == null) {
+            return false;
+        }
+        
+        boolean holding = !handler().getCursorStack().isEmpty();
+        if (!holding && !slot.hasStack()) {
+            return false;
+        }
+        if (!holding) {
+            // Take the stack along, it is spread over the slots the finger crosses next
+            click(slot, GestureRecognizer.BUTTON_LEFT, SlotActionType.PICKUP);
+        }
+        
+        int slotCount = Math.max(handler().slots.size(), slot.id + 1);
+        if (visited.length < slotCount) {
+            visited = new boolean[slotCount];
+        } else {
+            Arrays.fill(visited, false);
+        }
+        distributing = true;
+        lastTapSlot = null;
+        quickCraft(null, QUICK_CRAFT_START);
+        visited[slot.id] = true;
+        if (holding) {
+            quickCraft(slot, QUICK_CRAFT_ADD);
+        }
+        return true;
+    }
+    
+    // Called every frame while distributing
+    public void dragTo(int guiX, int guiY) {
+        if (!distributing) {
+            return;
+        }
+        Slot slot = grid.slotAt(guiX, guiY);
+        if (slot != null && slot.id < visited.length && !visited[slot.id]) {
+            visited[slot.id] = true;
+            quickCraft(slot, QUICK_CRAFT_ADD);
+        }
+    }
+    
+    public void dragEnd(int guiX, int guiY) {
+        if (!distributing) {
+            return;
+        }
+        dragTo(guiX, guiY);
+        quickCraft(null, QUICK_CRAFT_END);
+        distributing = false;
+    }
+    
+    // Finishes a distribution on a screen that is still open, so the handler isn't left
+    // halfway through one, and forgets everything else
+    public void cancel(Screen currentScreen) {
+        if (distributing && grid != null && grid.getScreen() == currentScreen) {
+            quickCraft(null, QUICK_CRAFT_END);
+        }
+        reset();
+    }
+    
+    private ScreenHandler handler() {
+        return grid.getScreen().getScreenHandler();
+    }
+    
+    private void quickCraft(Slot slot, int stage) {
+        click(slot, ScreenHandler.packQuickCraftData(stage, QUICK_CRAFT_EVEN), SlotActionType.QUICK_CRAFT);
+    }
+    
+    private void click(Slot slot, int button, SlotActionType action) {
+        int slotId = slot != null ? slot.id : NO_SLOT;
+        try {
+            ((HandledScreenMixin) grid.getScreen()).invokeOnMouseClick(slot, slotId, button, action);
+            LOGGER.debug("SLOT {} button {} on slot {}", action, button, slotId);
+        } catch (Exception e) {
+            LOGGER.error("Failed to click slot {}", slotId, e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.touchinput;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.widget.ButtonWidget;
+import net.minecraft.text.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Accuracy test for the touch mapping: a grid of targets is shown one at a time, and every tap
+// is compared with the target it was aimed at. The result is a heatmap of mean and max error per
+// region, written to the log and to touch-accuracy/ in the game directory. The measured offsets
+// can then be stored as a CorrectionGrid, which the mapping applies from then on; testing again
+// after that shows what is left.
+public class TouchAccuracyScreen extends Screen {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchAccuracy");
+    
+    private static final int COLUMNS = 5;
+    private static final int ROWS = 4;
+    private static final int INSET = 24;                // Targets' distance from the screen edges
+    private static final long TAP_DELAY_MS = 300;       // Ignore taps closer together than this
+    private static final double WORST_ERROR = 8.0;      // GUI pixels drawn fully red
+    private static final DateTimeFormatter EXPORT_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    
+    private final Screen parent;
+    private final TouchConfig config;
+    
+    private AccuracyGrid grid = new AccuracyGrid(COLUMNS, ROWS);
+    private int target = 0;     // Index of the target shown, COLUMNS * ROWS once the round is done
+    private long lastTapTime = 0;
+    private Path exportedTo;
+    private String status = "";
+    
+    public TouchAccuracyScreen(Screen parent, TouchConfig config) {
+        super(Text.literal("Touch Accuracy Test"));
+        this.parent = parent;
+        this.config = config;
+    }
+    
+    private boolean isDone() {
+        return target >= COLUMNS * ROWS;
+    }
+    
+    @Override
+    protected void init() {
+        this.clearChildren();
+        if (!isDone()) {
+            // No buttons while testing, they would catch taps meant for targets (Escape leaves)
+            return;
+        }
+        
+        int buttonWidth = 100;
+        int x = this.width / 2 - (buttonWidth * 4 + 30) / 2;
+        int y = this.height - 30;
+        this.addDrawableChild(ButtonWidget.builder(Text.literal("Test Again"), button -> {
+            grid = new AccuracyGrid(COLUMNS, ROWS);
+            target = 0;
+            status = "";
+            init();
+        }).dimensions(x, y, buttonWidth, 20).build());
+        
+        ButtonWidget apply = ButtonWidget.builder(Text.literal("Apply Correction"), button -> applyCorrection())
+            .dimensions(x + buttonWidth + 10, y, buttonWidth, 20).build();
+        apply.active = grid.getTotal() > 0;
+        this.addDrawableChild(apply);
+        
+        ButtonWidget clear = ButtonWidget.builder(Text.literal("Clear Correction"), button -> {
+            setCorrection(null);
+            status = "Correction cleared";
+            init();
+        }).dimensions(x + (buttonWidth + 10) * 2, y, buttonWidth, 20).build();
+        clear.active = config.correction != null;
+        this.addDrawableChild(clear);
+        
+        this.addDrawableChild(ButtonWidget.builder(Text.literal("Done"), button -> close())
+            .dimensions(x + (buttonWidth + 10) * 3, y, buttonWidth, 20).build());
+    }
+    
+    private int targetX(int column) {
+        return INSET + column * (this.width - 2 * INSET) / (COLUMNS - 1);
+    }
+    
+    private int targetY(int row) {
+        return INSET + row * (this.height - 2 * INSET) / (ROWS - 1);
+    }
+    
+    // A cell reaches halfway to its neighbors' targets, and to the screen edge on the outside
+    private int cellLeft(int column) {
+        return column == 0 ? 0 : (targetX(column - 1) + targetX(column)) / 2;
+    }
+    
+    private int cellTop(int row) {
+        return row == 0 ? 0 : (targetY(row - 1) + targetY(row)) / 2;
+    }
+    
+    private int cellRight(int column) {
+        return column == COLUMNS - 1 ? this.width : cellLeft(column + 1);
+    }
+    
+    private int cellBottom(int row) {
+        return row == ROWS - 1 ? this.height : cellTop(row + 1);
+    }
+    
+    @Override
+    public void renderBackground(DrawContext context, int mouseX, int mouseY, float delta) {
+        super.renderBackground(context, mouseX, mouseY, delta);
+        if (isDone()) {
+            drawHeatmap(context);
+        }
+    }
+    
+    @Override
+    public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        super.render(context, mouseX, mouseY, delta);
+        
+        int centerX = this.width / 2;
+        context.drawCenteredTextWithShadow(this.textRenderer, this.title, centerX, 8, 0xFFFFFF);
+        
+        if (!isDone()) {
+            int column = target % COLUMNS;
+            int row = target / COLUMNS;
+            drawTarget(context, targetX(column), targetY(row));
+            context.drawCenteredTextWithShadow(this.textRenderer,
+                Text.literal("Tap the center of each target (" + (target + 1) + " of " + COLUMNS * ROWS + ")"),
+                centerX, this.height / 2 - 4, 0xFFFFFF);
+            return;
+        }
+        
+        context.drawCenteredTextWithShadow(this.textRenderer,
+            Text.literal(String.format(Locale.ROOT, "Mean error %.1f px, max %.1f px%s",
+                grid.overallMeanError(), grid.overallMaxError(), config.correction != null ? " (corrected)" : "")),
+            centerX, this.height / 2 - 10, 0xFFFFFF);
+        String line = !status.isEmpty() ? status
+            : exportedTo != null ? "Saved to " + exportedTo.getFileName() : "";
+        context.drawCenteredTextWithShadow(this.textRenderer, Text.literal(line), centerX, this.height / 2 + 4, 0xAAAAAA);
+    }
+    
+    // Cells from green (no error) to red (WORST_ERROR or more), with mean / max error in each
+    private void drawHeatmap(DrawContext context) {
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                int left = cellLeft(column);
+                int top = cellTop(row);
+                int right = cellRight(column);
+                int bottom = cellBottom(row);
+                int color = 0x60808080;
+                if (grid.count(column, row) > 0) {
+                    double badness = Math.min(1.0, grid.meanError(column, row) / WORST_ERROR);
+                    int red = (int) (255 * badness);
+                    int green = (int) (255 * (1.0 - badness));
+                    color = 0x80000000 | red << 16 | green << 8;
+                }
+                context.fill(left + 1, top + 1, right - 1, bottom - 1, color);
+                if (grid.count(column, row) > 0) {
+                    context.drawCenteredTextWithShadow(this.textRenderer,
+                        String.format(Locale.ROOT, "%.1f / %.1f", grid.meanError(column, row), grid.maxError(column, row)),
+                        (left + right) / 2, (top + bottom) / 2 - 4, 0xFFFFFF);
+                }
+            }
+        }
+    }
+    
+    private void drawTarget(DrawContext context, int x, int y) {
+        int radius = 12;
+        context.fill(x - radius, y - 1, x + radius + 1, y + 2, 0xFFFF0000);
+        context.fill(x - 1, y - radius, x + 2, y + radius + 1, 0xFFFF0000);
+        context.fill(x, y, x + 1, y + 1, 0xFFFFFFFF);
+    }
+    
+    @Override
+    public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        if (isDone()) {
+            return super.mouseClicked(mouseX, mouseY, button);
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastTapTime < TAP_DELAY_MS) {
+            return true;
+        }
+        lastTapTime = now;
+        
+        int column = target % COLUMNS;
+        int row = target / COLUMNS;
+        grid.add(column, row, mouseX - targetX(column), mouseY - targetY(row));
+        target++;
+        if (isDone()) {
+            finishRound();
+            init();
+        }
+        return true;
+    }
+    
+    private void finishRound() {
+        String report = grid.report();
+        LOGGER.info("{}", report);
+        try {
+            Path directory = FabricLoader.getInstance().getGameDir().resolve("touch-accuracy");
+            Files.createDirectories(directory);
+            exportedTo = directory.resolve("accuracy-" + LocalDateTime.now().format(EXPORT_NAME_FORMAT) + ".txt");
+            Files.writeString(exportedTo, report, StandardCharsets.UTF_8);
+            LOGGER.info("Accuracy report saved to {}", exportedTo);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save accuracy report", e);
+            exportedTo = null;
+        }
+    }
+    
+    // Stores the mean offset of every cell as a correction at its target, on top of the
+    // correction the taps were measured through
+    private void applyCorrection() {
+        TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+        if (handler == null || client == null) {
+            return;
+        }
+        TouchTransform transform = handler.getTransform(client);
+        double[] node = new double[2];
+        double[] landed = new double[2];
+        double[] corner = new double[2];
+        double[] offsetX = new double[COLUMNS * ROWS];
+        double[] offsetY = new double[COLUMNS * ROWS];
+        
+        CorrectionGrid previous = config.correction;
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                int targetX = targetX(column);
+                int targetY = targetY(row);
+                transform.guiToNormalized(targetX, targetY, node);
+                transform.guiToNormalized(targetX + grid.meanOffsetX(column, row), targetY + grid.meanOffsetY(column, row), landed);
+                int index = row * COLUMNS + column;
+                offsetX[index] = (previous != null ? previous.sampleX(node[0], node[1]) : 0) + node[0] - landed[0];
+                offsetY[index] = (previous != null ? previous.sampleY(node[0], node[1]) : 0) + node[1] - landed[1];
+            }
+        }
+        transform.guiToNormalized(targetX(0), targetY(0), node);
+        transform.guiToNormalized(targetX(COLUMNS - 1), targetY(ROWS - 1), corner);
+        setCorrection(new CorrectionGrid(COLUMNS, ROWS, node[0], node[1], corner[0], corner[1], offsetX, offsetY));
+        
+        LOGGER.info("Applied touch correction from {} taps", grid.getTotal());
+        status = "Correction applied, test again to check it";
+        init();
+    }
+    
+    private void setCorrection(CorrectionGrid correction) {
+        config.correction = correction;
+        config.save();
+        TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+        if (handler != null) {
+            handler.invalidateTransform();
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (client != null) {
+            client.setScreen(parent);
+        }
+    }
+}
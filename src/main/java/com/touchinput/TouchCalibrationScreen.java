@@ -105,6 +105,11 @@ public class TouchCalibrationScreen extends Screen {
                 context.drawCenteredTextWithShadow(this.textRenderer, 
                     Text. literal("Invert X: " + config.invertX + ", Invert Y: " + config. invertY), 
                     centerX, centerY + 30, 0xFFFFFF);
+                if (config.windowedMapping || config.outputMapping) {
+                    context.drawCenteredTextWithShadow(this.textRenderer, 
+                        Text.literal("Window at: " + config.windowX + ", " + config.windowY), 
+                        centerX, centerY + 55, 0xFFFFFF);
+                }
                 context.drawCenteredTextWithShadow(this.textRenderer, 
                     Text.literal("Click anywhere to close"), 
                     centerX, centerY + 80, 0xAAAAAA);
@@ -196,64 +201,32 @@ public class TouchCalibrationScreen extends Screen {
     }
     
     private void analyzeMapping() {
-        // Calculate deltas
-        int screenDeltaX = bottomRightScreen[0] - topLeftScreen[0];
-        int screenDeltaY = bottomRightScreen[1] - topLeftScreen[1];
-        int touchDeltaX = bottomRightTouch[0] - topLeftTouch[0];
-        int touchDeltaY = bottomRightTouch[1] - topLeftTouch[1];
-        
-        LOGGER.info("Calibration Analysis:");
-        LOGGER.info("  Screen positions: TL({}, {}) BR({}, {})", 
-            topLeftScreen[0], topLeftScreen[1], bottomRightScreen[0], bottomRightScreen[1]);
-        LOGGER.info("  Touch positions: TL({}, {}) BR({}, {})", 
-            topLeftTouch[0], topLeftTouch[1], bottomRightTouch[0], bottomRightTouch[1]);
-        LOGGER.info("  Screen Delta: ({}, {})", screenDeltaX, screenDeltaY);
-        LOGGER.info("  Touch Delta: ({}, {})", touchDeltaX, touchDeltaY);
-        
-        // Get absolute deltas to determine if axes are swapped
-        int absTouchDeltaX = Math. abs(touchDeltaX);
-        int absTouchDeltaY = Math.abs(touchDeltaY);
-        int absScreenDeltaX = Math. abs(screenDeltaX);
-        int absScreenDeltaY = Math.abs(screenDeltaY);
+        CalibrationSolver.solveOrientation(config, topLeftTouch, bottomRightTouch, topLeftScreen, bottomRightScreen);
         
-        // Determine if axes need to be swapped
-        // If touch X moves more than Y but screen X moves less than Y, axes are swapped
-        boolean axesSwapped = (absTouchDeltaX > absTouchDeltaY) != (absScreenDeltaX > absScreenDeltaY);
-        
-        config.swapXY = axesSwapped;
-        
-        // Determine inversions based on sign matching
-        // If touch and screen move in opposite directions on same axis, invert
-        if (axesSwapped) {
-            // X maps to Y, Y maps to X
-            config.invertX = (touchDeltaY > 0) == (screenDeltaX < 0);  // touch Y vs screen X
-            config.invertY = (touchDeltaX > 0) == (screenDeltaY < 0);  // touch X vs screen Y
-        } else {
-            // Direct mapping
-            config.invertX = (touchDeltaX > 0) == (screenDeltaX < 0);
-            config.invertY = (touchDeltaY > 0) == (screenDeltaY < 0);
-        }
-        
-        // Determine best mapping mode
-        if (! axesSwapped) {
-            if (! config.invertX && !config. invertY) {
-                config.mappingMode = TouchConfig.MappingMode.NORMAL;
-            } else if (config.invertX && config.invertY) {
-                config.mappingMode = TouchConfig. MappingMode.ROTATE_180;
+        if (client != null && (config.outputMapping || config.windowedMapping)) {
+            // The targets, not the clicks: the clicks went through the old, possibly wrong mapping
+            int targetLeft = 50;
+            int targetTop = 50;
+            
+            // Window (cursor) pixels per GUI pixel
+            double windowPerGui = client.getWindow().getScaleFactor() * client.getWindow().getWidth()
+                / client.getWindow().getFramebufferWidth();
+            if (config.outputMapping) {
+                double systemScale = config.getEffectiveSystemScale(client.getWindow().getWidth(),
+                    client.getWindow().getHeight());
+                CalibrationSolver.solveDesktopPlacement(config, topLeftTouch, targetLeft, targetTop,
+                    windowPerGui, systemScale);
             } else {
-                config.mappingMode = TouchConfig.MappingMode. CUSTOM;
+                CalibrationSolver.solveWindowPlacement(config, topLeftTouch, bottomRightTouch, targetLeft, targetTop,
+                    this.width - 50, this.height - 50, windowPerGui);
             }
-        } else {
-            config.mappingMode = TouchConfig.MappingMode.CUSTOM;
         }
         
-        LOGGER.info("Calibration Result:");
-        LOGGER.info("  Mapping Mode: {}", config.mappingMode. getDisplayName());
-        LOGGER.info("  Swap XY: {}", config.swapXY);
-        LOGGER.info("  Invert X: {}", config.invertX);
-        LOGGER.info("  Invert Y: {}", config.invertY);
-        
         config.save();
+        TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+        if (handler != null) {
+            handler.invalidateTransform();
+        }
         step = 3;
     }
     
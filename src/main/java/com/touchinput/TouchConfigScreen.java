@@ -8,6 +8,10 @@ import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.screen.ScreenTexts;
 import net.minecraft.text.Text;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class TouchConfigScreen extends Screen {
     private final Screen parent;
     private final TouchConfig config;
@@ -18,6 +22,11 @@ public class TouchConfigScreen extends Screen {
     private TextFieldWidget screenHeightField;
     private TextFieldWidget systemScaleField;
     private TextFieldWidget devicePathField;
+    private TextFieldWidget lookSensitivityField;
+    private TextFieldWidget palmMajorField;
+    private TextFieldWidget palmPressureField;
+    private TextFieldWidget windowXField;
+    private TextFieldWidget windowYField;
     
     // Tab system
     private enum Tab {
@@ -154,9 +163,40 @@ public class TouchConfigScreen extends Screen {
         });
         this.addDrawableChild(screenHeightField);
         
+        y += 35;
+        
+        // Device profile: screen, touch range, mapping and palm settings per touch device
+        if (config.profiles.isEmpty()) {
+            ButtonWidget none = ButtonWidget.builder(Text.literal("No devices seen yet"), button -> { })
+                .dimensions(x, y, fieldWidth*2 + 10, 20).build();
+            none.active = false;
+            this.addDrawableChild(none);
+        } else {
+            List<String> keys = new ArrayList<>(config.profiles.keySet());
+            this.addDrawableChild(CyclingButtonWidget.<String>builder(key -> Text.literal(profileLabel(key)))
+                .values(keys)
+                .initially(config.activeProfile != null && keys.contains(config.activeProfile) ? config.activeProfile : keys.get(0))
+                .build(x, y, fieldWidth*2 + 10, 20, Text.literal("Profile"),
+                    (button, value) -> {
+                        // Switched in place on the running handler, no reload
+                        TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+                        if (handler != null && handler.isReady() && handler.getConfig() == config && client != null) {
+                            handler.selectProfile(client, value);
+                        } else {
+                            config.selectProfile(value);
+                        }
+                        init(); // Show the selected profile's values
+                    }));
+        }
+        
         updateFieldsEnabled();
     }
     
+    private String profileLabel(String key) {
+        DeviceProfile profile = config.profiles.get(key);
+        return profile == null || profile.name.isEmpty() ? key : profile.name;
+    }
+    
     private void initTouchTab(int x, int y, int width) {
         int fieldWidth = 100;
         
@@ -214,6 +254,50 @@ public class TouchConfigScreen extends Screen {
         });
         this.addDrawableChild(touchMaxYField);
         
+        y += 35;
+        
+        // Capture / replay
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.captureEnabled)
+            .build(x, y, fieldWidth, 20, Text.literal("Capture"),
+                (button, value) -> {
+                    config.captureEnabled = value;
+                }));
+        
+        this.addDrawableChild(ButtonWidget.builder(Text.literal("Replay Last"), button -> {
+            TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+            Path latest = TouchInputHandler.findLatestCapture();
+            if (handler != null && latest != null && client != null) {
+                client.setScreen(parent);
+                handler.startReplay(latest, true);
+            }
+        }).dimensions(x + 110, y, fieldWidth, 20).build());
+        
+        y += 35;
+        
+        // Palm rejection thresholds, in device units (0 = off)
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.palmRejectionEnabled)
+            .build(x, y, fieldWidth, 20, Text.literal("Palm"),
+                (button, value) -> {
+                    config.palmRejectionEnabled = value;
+                    updateFieldsEnabled();
+                }));
+        
+        palmMajorField = new TextFieldWidget(this.textRenderer, x + 110, y, 45, 20, Text.literal("Max Size"));
+        palmMajorField.setText(String.valueOf(config.palmMaxTouchMajor));
+        palmMajorField.setChangedListener(text -> {
+            try { config.palmMaxTouchMajor = Integer.parseInt(text); } catch (NumberFormatException ignored) {}
+        });
+        this.addDrawableChild(palmMajorField);
+        
+        palmPressureField = new TextFieldWidget(this.textRenderer, x + 165, y, 45, 20, Text.literal("Min Pressure"));
+        palmPressureField.setText(String.valueOf(config.palmMinPressure));
+        palmPressureField.setChangedListener(text -> {
+            try { config.palmMinPressure = Integer.parseInt(text); } catch (NumberFormatException ignored) {}
+        });
+        this.addDrawableChild(palmPressureField);
+        
         updateFieldsEnabled();
     }
     
@@ -256,6 +340,31 @@ public class TouchConfigScreen extends Screen {
             y += 35;
         }
         
+        // Windowed mode: where the window's content sits on the panel (calibration fills these in)
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.windowedMapping)
+            .build(x, y, fieldWidth, 20, Text.literal("Windowed"),
+                (button, value) -> {
+                    config.windowedMapping = value;
+                    updateFieldsEnabled();
+                }));
+        
+        windowXField = new TextFieldWidget(this.textRenderer, x + 110, y, 45, 20, Text.literal("Window X"));
+        windowXField.setText(String.valueOf(config.windowX));
+        windowXField.setChangedListener(text -> {
+            try { config.windowX = Integer.parseInt(text); } catch (NumberFormatException ignored) {}
+        });
+        this.addDrawableChild(windowXField);
+        
+        windowYField = new TextFieldWidget(this.textRenderer, x + 165, y, 45, 20, Text.literal("Window Y"));
+        windowYField.setText(String.valueOf(config.windowY));
+        windowYField.setChangedListener(text -> {
+            try { config.windowY = Integer.parseInt(text); } catch (NumberFormatException ignored) {}
+        });
+        this.addDrawableChild(windowYField);
+        
+        y += 35;
+        
         // Calibration button
         this.addDrawableChild(ButtonWidget.builder(Text.literal("🎯 Auto-Calibrate Mapping"),
             button -> {
@@ -263,6 +372,18 @@ public class TouchConfigScreen extends Screen {
                     client.setScreen(new TouchCalibrationScreen(this, config));
                 }
             }).dimensions(x, y, fieldWidth*2, 20).build());
+        
+        y += 25;
+        
+        // Per-region accuracy, and an optional correction for it
+        this.addDrawableChild(ButtonWidget.builder(Text.literal("Test Accuracy"),
+            button -> {
+                if (client != null) {
+                    client.setScreen(new TouchAccuracyScreen(this, config));
+                }
+            }).dimensions(x, y, fieldWidth*2, 20).build());
+        
+        updateFieldsEnabled();
     }
     
     private void initSystemTab(int x, int y, int width) {
@@ -282,7 +403,8 @@ public class TouchConfigScreen extends Screen {
         this.addDrawableChild(ButtonWidget.builder(Text.literal("Detect Now"), button -> {
             if (client != null) {
                 config.autoDetectSystemScale = true;
-                config.manualSystemScale = config.getEffectiveSystemScale(client);
+                config.manualSystemScale = config.getEffectiveSystemScale(client.getWindow().getWidth(),
+                    client.getWindow().getHeight());
                 systemScaleField.setText(String.format("%.2f", config.manualSystemScale));
             }
         }).dimensions(x + fieldWidth + 10, y, fieldWidth, 20).build());
@@ -297,6 +419,87 @@ public class TouchConfigScreen extends Screen {
         });
         this.addDrawableChild(systemScaleField);
         
+        y += 35;
+        
+        // Gestures (thresholds are in the config file)
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.gesturesEnabled)
+            .build(x, y, fieldWidth, 20, Text.literal("Gestures"),
+                (button, value) -> {
+                    config.gesturesEnabled = value;
+                }));
+        
+        this.addDrawableChild(CyclingButtonWidget.<TouchConfig.PinchAction>builder(action -> Text.literal(action.getDisplayName()))
+            .values(TouchConfig.PinchAction.values())
+            .initially(config.pinchAction)
+            .build(x + 110, y, fieldWidth, 20, Text.literal("Pinch"),
+                (button, value) -> {
+                    config.pinchAction = value;
+                }));
+        
+        y += 35;
+        
+        // Touch scrolling
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.touchScrollEnabled)
+            .build(x, y, fieldWidth, 20, Text.literal("Scroll"),
+                (button, value) -> {
+                    config.touchScrollEnabled = value;
+                }));
+        
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.flingDecayMs > 0)
+            .build(x + 110, y, fieldWidth, 20, Text.literal("Momentum"),
+                (button, value) -> {
+                    config.flingDecayMs = value ? 325.0 : 0.0;
+                }));
+        
+        y += 35;
+        
+        // Camera look with no screen open (the region is in the config file)
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.touchLookEnabled)
+            .build(x, y, fieldWidth, 20, Text.literal("Look"),
+                (button, value) -> {
+                    config.touchLookEnabled = value;
+                }));
+        
+        lookSensitivityField = new TextFieldWidget(this.textRenderer, x + 110, y, fieldWidth, 20, Text.literal("Sensitivity"));
+        lookSensitivityField.setText(String.format("%.2f", config.lookSensitivity));
+        lookSensitivityField.setChangedListener(text -> {
+            try { config.lookSensitivity = Double.parseDouble(text); } catch (NumberFormatException ignored) {}
+        });
+        this.addDrawableChild(lookSensitivityField);
+        
+        y += 35;
+        
+        this.addDrawableChild(CyclingButtonWidget.<TouchConfig.DispatchMode>builder(mode -> Text.literal(mode.getDisplayName()))
+            .values(TouchConfig.DispatchMode.values())
+            .initially(config.dispatchMode)
+            .build(x, y, fieldWidth, 20, Text.literal("Clicks"),
+                (button, value) -> config.dispatchMode = value));
+        
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.multiPointerEnabled)
+            .build(x + 110, y, fieldWidth, 20, Text.literal("Pointers"),
+                (button, value) -> {
+                    config.multiPointerEnabled = value;
+                }));
+        
+        y += 35;
+        
+        // Local socket for overlays and scripted UI tests
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.socketEnabled)
+            .build(x, y, fieldWidth, 20, Text.literal("Socket"),
+                (button, value) -> config.socketEnabled = value));
+        
+        // Hotbar, inventory and chat zones with no screen open (the shortcuts are in the config file)
+        this.addDrawableChild(CyclingButtonWidget.onOffBuilder(Text.literal("ON"), Text.literal("OFF"))
+            .initially(config.hudZonesEnabled)
+            .build(x + 110, y, fieldWidth, 20, Text.literal("HUD Zones"),
+                (button, value) -> config.hudZonesEnabled = value));
+        
         updateFieldsEnabled();
     }
     
@@ -306,6 +509,10 @@ public class TouchConfigScreen extends Screen {
         if (screenWidthField != null) screenWidthField.active = !config.autoDetectScreenResolution;
         if (screenHeightField != null) screenHeightField.active = !config.autoDetectScreenResolution;
         if (systemScaleField != null) systemScaleField.active = !config.autoDetectSystemScale;
+        if (palmMajorField != null) palmMajorField.active = config.palmRejectionEnabled;
+        if (palmPressureField != null) palmPressureField.active = config.palmRejectionEnabled;
+        if (windowXField != null) windowXField.active = config.windowedMapping;
+        if (windowYField != null) windowYField.active = config.windowedMapping;
     }
     
     private void detectTouchResolution() {
@@ -356,22 +563,43 @@ public class TouchConfigScreen extends Screen {
             case DISPLAY:
                 context.drawTextWithShadow(this.textRenderer, "Screen Resolution Mode:", labelX, labelY - 20, 0xAAAAAA);
                 context.drawTextWithShadow(this.textRenderer, "Screen Dimensions:", labelX, labelY + 20, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Device Profile:", labelX, labelY + 60, 0xAAAAAA);
                 break;
             case TOUCH:
                 context.drawTextWithShadow(this.textRenderer, "Visual Debugging:", labelX, labelY - 20, 0xAAAAAA);
                 context.drawTextWithShadow(this.textRenderer, "Touch Device:", labelX, labelY + 20, 0xAAAAAA);
                 context.drawTextWithShadow(this.textRenderer, "Touch Resolution Mode:", labelX, labelY + 60, 0xAAAAAA);
                 context.drawTextWithShadow(this.textRenderer, "Touch Maximum Values:", labelX, labelY + 100, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Input Capture / Replay:", labelX, labelY + 140, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Palm Rejection / Max Size / Min Pressure:", labelX, labelY + 180, 0xAAAAAA);
+                
+                // Live counters so the thresholds can be tuned against this device
+                TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+                if (handler != null) {
+                    context.drawTextWithShadow(this.textRenderer,
+                        "Rejected: " + handler.getRejectedBySize() + " palms, " + handler.getRejectedByPressure()
+                            + " light touches (last contact: size " + handler.getLastContactMajor()
+                            + ", pressure " + handler.getLastContactPressure() + ")",
+                        labelX, labelY + 225, 0x888888);
+                }
                 break;
             case MAPPING:
                 context.drawTextWithShadow(this.textRenderer, "Mapping Preset:", labelX, labelY - 20, 0xAAAAAA);
                 if (config.mappingMode == TouchConfig.MappingMode.CUSTOM) {
                     context.drawTextWithShadow(this.textRenderer, "Custom Settings:", labelX, labelY + 20, 0xAAAAAA);
+                    context.drawTextWithShadow(this.textRenderer, "Windowed Mode / Position:", labelX, labelY + 85, 0xAAAAAA);
+                } else {
+                    context.drawTextWithShadow(this.textRenderer, "Windowed Mode / Position:", labelX, labelY + 20, 0xAAAAAA);
                 }
                 break;
             case SYSTEM:
                 context.drawTextWithShadow(this.textRenderer, "System Scale Mode:", labelX, labelY - 20, 0xAAAAAA);
                 context.drawTextWithShadow(this.textRenderer, "Manual Scale Value:", labelX, labelY + 20, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Touch Gestures:", labelX, labelY + 60, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Touch Scrolling:", labelX, labelY + 100, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Camera Look / Sensitivity:", labelX, labelY + 140, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Click Dispatch / Multi-Pointer:", labelX, labelY + 180, 0xAAAAAA);
+                context.drawTextWithShadow(this.textRenderer, "Touch Socket / HUD Zones:", labelX, labelY + 220, 0xAAAAAA);
                 break;
         }
         
@@ -0,0 +1,103 @@
+package com.touchinput;
+
+import com.touchinput.api.ScreenTouchHandler;
+import com.touchinput.api.TouchEntrypoint;
+import com.touchinput.api.TouchHandlerRegistry;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
+import net.minecraft.client.gui.screen.Screen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Screen touch handlers registered by other mods (see com.touchinput.api). Lookups happen on
+// the client thread once per opened screen: the registrations that can apply to a screen class
+// are collected the first time that class is seen and cached, so resolving is a map lookup
+// plus the predicates registered for it.
+public class TouchHandlers implements TouchHandlerRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchHandlers");
+    private static final Registration[] NONE = new Registration[0];
+    
+    private record Registration(Class<? extends Screen> screenClass, Predicate<Screen> predicate,
+                                ScreenTouchHandler handler) {
+        boolean matches(Screen screen) {
+            if (predicate == null) {
+                return true;
+            }
+            try {
+                return predicate.test(screen);
+            } catch (Exception e) {
+                LOGGER.error("Touch handler predicate failed for {}", screen.getClass().getName(), e);
+                return false;
+            }
+        }
+    }
+    
+    private final List<Registration> registrations = new ArrayList<>();
+    private final Map<Class<?>, Registration[]> byClass = new HashMap<>();
+    
+    // Calls every TouchEntrypoint; a failing mod is logged and skipped
+    public void loadEntrypoints() {
+        for (EntrypointContainer<TouchEntrypoint> container
+                : FabricLoader.getInstance().getEntrypointContainers(TouchEntrypoint.KEY, TouchEntrypoint.class)) {
+            String modId = container.getProvider().getMetadata().getId();
+            try {
+                int before = registrations.size();
+                container.getEntrypoint().registerTouchHandlers(this);
+                LOGGER.info("Mod {} registered {} touch handlers", modId, registrations.size() - before);
+            } catch (Throwable e) {
+                LOGGER.error("Mod {} failed to register touch handlers", modId, e);
+            }
+        }
+    }
+    
+    @Override
+    public void register(Class<? extends Screen> screenClass, ScreenTouchHandler handler) {
+        add(new Registration(screenClass, null, handler));
+    }
+    
+    @Override
+    public void register(Predicate<Screen> predicate, ScreenTouchHandler handler) {
+        add(new Registration(null, predicate, handler));
+    }
+    
+    private void add(Registration registration) {
+        if (registration.handler() == null) {
+            throw new IllegalArgumentException("handler is null");
+        }
+        registrations.add(registration);
+        byClass.clear();
+    }
+    
+    public boolean isEmpty() {
+        return registrations.isEmpty();
+    }
+    
+    // The handler for this screen, or null to leave it to the default handling
+    public ScreenTouchHandler resolve(Screen screen) {
+        if (screen == null || registrations.isEmpty()) {
+            return null;
+        }
+        for (Registration registration : byClass.computeIfAbsent(screen.getClass(), this::collect)) {
+            if (registration.matches(screen)) {
+                return registration.handler();
+            }
+        }
+        return null;
+    }
+    
+    private Registration[] collect(Class<?> screenClass) {
+        List<Registration> candidates = new ArrayList<>();
+        for (Registration registration : registrations) {
+            if (registration.screenClass() == null || registration.screenClass().isAssignableFrom(screenClass)) {
+                candidates.add(registration);
+            }
+        }
+        return candidates.isEmpty() ? NONE : candidates.toArray(NONE);
+    }
+}
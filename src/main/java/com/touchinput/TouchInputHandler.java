@@ -1,16 +1,41 @@
 package com.touchinput;
 
+import com.touchinput.api.ScreenTouchHandler;
+import com.touchinput.api.TouchFrame;
+import com.touchinput.mixin.KeyBindingMixin;
 import com.touchinput.mixin.MouseMixin;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.Element;
 import net. minecraft.client.gui.screen.Screen;
+import net.minecraft.client.option.KeyBinding;
+import net.minecraft.client.util.Window;
+import net.minecraft.client.gui.widget.ScrollableWidget;
+import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public class TouchInputHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger("TouchInputHandler");
@@ -18,23 +43,34 @@ public class TouchInputHandler {
     // Configuration
     private final TouchConfig config;
     
-    // State
-    private volatile boolean pressedSent = false;
+    // State (client thread)
+    private int pressedButton = -1; // Button held on the current screen, -1 if none
     
-    // Event codes from linux/input-event-codes.h
-    private static final int EV_SYN = 0x00;
-    private static final int EV_KEY = 0x01;
-    private static final int EV_ABS = 0x03;
-    private static final int ABS_MT_POSITION_X = 0x35;
-    private static final int ABS_MT_POSITION_Y = 0x36;
-    private static final int ABS_MT_TRACKING_ID = 0x39;
-    private static final int BTN_TOUCH = 0x14a;
+    // Pointer capture: the screen and element (a widget, or the screen itself) that took the
+    // press. Drags and the release go straight to the element, nothing is looked up again.
+    private Screen capturedScreen;
+    private Element capturedElement;
+    private CursorTarget capturedCursor;
+    private double capturedCursorScale;
+    private boolean capturedViaMouse;   // Pressed through the game's mouse handler (DispatchMode.MOUSE)
+    private CursorTarget clientCursor;
     
     // Touch state
     private volatile boolean touchActive = false;
+    private volatile int touchSession = 0; // Bumped whenever a new first finger lands
     private volatile int currentTouchX = 0;
     private volatile int currentTouchY = 0;
     
+    // Reader thread: per-slot contacts and the gesture state machine fed from them
+    private final TouchSlots slots;
+    private final EvdevDecoder decoder;
+    private final GestureRecognizer gestures;
+    private boolean plainPressSent = false; // Press queued while gestures are disabled
+    
+    // Stylus: sampled by the reader, hover picked up by the client once per frame
+    private final PenState pen = new PenState();
+    private final int[] penHover = new int[2];
+    
     // Last sent position for release
     private volatile int lastSentX = 0;
     private volatile int lastSentY = 0;
@@ -43,219 +79,1156 @@ public class TouchInputHandler {
     private volatile int lastDragX = 0;
     private volatile int lastDragY = 0;
     
+    // Scrolling (client thread). Scroll amounts are collected while draining the queue and
+    // sent as a single mouseScrolled per frame.
+    private boolean touchScrolling = false;   // One-finger drag that scrolls instead of pressing
+    private Screen scrollScreen;
+    private final int[] scrollAnchor = new int[2]; // Where the scroll is sent, in GUI coordinates
+    private int scrollLastY;
+    private double pendingScrollX;
+    private double pendingScrollY;
+    private final KineticScroller kinetic = new KineticScroller();
+    
+    // Inventory slots: taps, long-presses and drags that start on a slot (client thread)
+    private final SlotTouch slotTouch;
+    
+    // Fingers after the first, each pressing its own widget (TouchConfig.multiPointerEnabled)
+    private final TouchPointers pointers = new TouchPointers();
+    private final TouchPointers.Listener pointerListener = (timeMicros, slot, down, x, y) ->
+        queue(TouchEvent.button(down ? TouchEventType.POINTER_DOWN : TouchEventType.POINTER_UP, slot, x, y, timeMicros));
+    
+    // Screen touch handlers from other mods. The open screen's handler is resolved once per
+    // screen; while there is one the reader also queues whole frames for it.
+    private final TouchHandlers touchHandlers = new TouchHandlers();
+    private Screen frameScreen;
+    private ScreenTouchHandler frameHandler;
+    private int consumedSession = -1;     // Touch session a handler took over
+    private volatile boolean framesWanted = false;
+    
+    // One frame view and its pointer arrays, reused for every frame handed to a handler
+    private final int[] frameIds = new int[TouchSlots.MAX_SLOTS];
+    private final int[] frameRawX = new int[TouchSlots.MAX_SLOTS];
+    private final int[] frameRawY = new int[TouchSlots.MAX_SLOTS];
+    private final int[] frameGuiX = new int[TouchSlots.MAX_SLOTS];
+    private final int[] frameGuiY = new int[TouchSlots.MAX_SLOTS];
+    private final TouchFrame frameView = new TouchFrame(frameIds, frameRawX, frameRawY, frameGuiX, frameGuiY);
+    private final int[] frameGui = new int[2];
+    
+    // Compiled touch -> GUI mapping, rebuilt after invalidateTransform()
+    private volatile TouchTransform transform;
+    
+    // Compiled mappings by profile key, so switching back to a device reuses its mapping. They
+    // outlive device switches and reloads; a resize or GUI scale change drops them all, a change
+    // to one profile's mapping only its own. The system scale is global, so each remembers the
+    // one it was compiled with. Client thread only.
+    private record CompiledMapping(TouchTransform transform, double systemScale) {
+    }
+    private final Map<String, CompiledMapping> profileTransforms = new HashMap<>();
+    
+    // False until startAsync() has installed the loaded config; the client thread leaves
+    // touch input alone until then
+    private volatile boolean ready = true;
+    private volatile boolean shuttingDown = false;
+    
+    // Identity of the device the reader just opened, picked up by the client thread
+    private final AtomicReference<TouchDeviceInfo> openedDevice = new AtomicReference<>();
+    
+    // Camera look with no screen open (render thread)
+    private final TouchLook look = new TouchLook();
+    
+    // HUD zones with no screen open: hotbar slots, inventory and chat (client thread)
+    private final HudZones hudZones = new HudZones();
+    private final int[] zoneGui = new int[2];
+    private final int[] zoneBounds = new int[4];
+    
     // Event queue for processing in main thread
-    private final ConcurrentLinkedQueue<TouchEvent> eventQueue = new ConcurrentLinkedQueue<>();
+    private final TouchEventQueue eventQueue;
+    private Screen drainedScreen;   // Screen the last drained events went to
     
-    private RandomAccessFile device;
-    private volatile boolean running = true;
+    // Set by the client thread while the game can't use touch input. The device reader then
+    // only drains the device: no decoding, no state, nothing published.
+    private volatile boolean inputSuspended = false;
+    private volatile long drainedEventCount = 0;    // Written by the reader thread only
+    
+    // Device reader or replay thread, one at a time
+    private static final long READER_JOIN_TIMEOUT_MS = 500;
+    private final ReaderLifecycle readers = new ReaderLifecycle(READER_JOIN_TIMEOUT_MS);
+    
+    // Scroll notches per unit of relative spread change while pinching
+    private static final double PINCH_SCROLL_NOTCHES = 10.0;
+    
+    // Capture and replay
+    private static final DateTimeFormatter CAPTURE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private volatile TouchCapture capture;
+    
+    // Local socket feed (see TouchSocketServer). The reader holds inputLock from the first event
+    // of a frame to its SYN_REPORT, even across reads, and an injected frame takes it whole, so
+    // a frame from either source is decoded without the other interleaving.
+    private volatile TouchSocketServer socketServer;
+    private final ReentrantLock inputLock = new ReentrantLock();
+    private volatile boolean replaying = false;
+    private TouchConfig configBeforeReplay;
     
     public TouchInputHandler() {
-        this.config = TouchConfig.load();
+        this(TouchConfig.load());
+    }
+    
+    TouchInputHandler(TouchConfig config) {
+        this.config = config;
+        this.eventQueue = new TouchEventQueue(config);
+        this.slots = new TouchSlots(config);
+        this.decoder = new EvdevDecoder(slots, pen, new EvdevDecoder.FrameListener() {
+            @Override
+            public void onFrame(long timeMicros) {
+                onFrameEnd(timeMicros);
+            }
+            
+            @Override
+            public void onPenFrame(long timeMicros) {
+                TouchInputHandler.this.onPenFrame(timeMicros);
+            }
+        });
+        this.slotTouch = new SlotTouch(config);
+        this.gestures = new GestureRecognizer(config, new GestureRecognizer.Listener() {
+            @Override
+            public void onButton(long timeMicros, int button, boolean pressed, int x, int y) {
+                queue(TouchEvent.button(pressed ? TouchEventType.PRESS : TouchEventType.RELEASE,
+                    button, x, y, timeMicros));
+            }
+            
+            @Override
+            public void onDragStart(long timeMicros, int fromX, int fromY, int x, int y) {
+                queue(TouchEvent.drag(TouchEventType.DRAG_START, x, y, fromX, fromY, 0, 0, timeMicros));
+            }
+            
+            @Override
+            public void onDragEnd(long timeMicros, int x, int y, double velocityX, double velocityY) {
+                queue(TouchEvent.drag(TouchEventType.DRAG_END, x, y, x, y, velocityX, velocityY, timeMicros));
+            }
+            
+            @Override
+            public void onScroll(long timeMicros, int fromX, int fromY, int toX, int toY) {
+                queue(TouchEvent.scroll(fromX, fromY, toX, toY, timeMicros));
+            }
+            
+            @Override
+            public void onPinch(long timeMicros, int centerX, int centerY, double scale) {
+                queue(TouchEvent.pinch(centerX, centerY, scale, timeMicros));
+            }
+        });
         LOGGER.info("TouchInputHandler initialized with config");
     }
     
+    // Latest pen pressure (device units) and how many pen samples have been read
+    public int getPenPressure() {
+        return pen.getPressure();
+    }
+    
+    public long getPenSampleCount() {
+        return pen.getSampleCount();
+    }
+    
+    public TouchHandlers getTouchHandlers() {
+        return touchHandlers;
+    }
+    
     public TouchConfig getConfig() {
         return config;
     }
     
-    public void start() {
-        try {
-            device = new RandomAccessFile(config.touchDevicePath, "r");
-            LOGGER.info("Successfully opened touch device: {}", config. touchDevicePath);
+    // Starts reading the configured device on a fresh thread, retiring any previous reader
+    public void startReader() {
+        readers.start("TouchInputThread", this::readDevice);
+    }
+    
+    // Loads the config and looks up the touch devices on background threads, so neither file
+    // nor sysfs I/O holds up the game's loading. Once both are done the config is installed,
+    // the reader started and the returned future completed. Until then the handler is not
+    // ready and ignores the client.
+    public CompletableFuture<Void> startAsync() {
+        long startNanos = System.nanoTime();
+        ready = false;
+        ExecutorService startup = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "TouchStartup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        CompletableFuture<TouchConfig> loaded = CompletableFuture.supplyAsync(TouchConfig::load, startup);
+        CompletableFuture<Map<String, Path>> devices = CompletableFuture.supplyAsync(TouchDeviceInfo::scan, startup);
+        return loaded.thenAcceptBoth(devices, (newConfig, found) -> {
+            if (shuttingDown) {
+                return;
+            }
+            boolean moved = newConfig.followActiveDevice(found);
+            config.copyFrom(newConfig);
+            dropTransform();
+            ClickVisualizer.DEBUG_ENABLED = config.debugCirclesEnabled;
+            if (moved) {
+                config.save();
+            }
             
-            // Event structure: timeval (16 bytes) + type (2) + code (2) + value (4) = 24 bytes
-            byte[] eventData = new byte[24];
-            ByteBuffer buffer = ByteBuffer. wrap(eventData).order(ByteOrder.LITTLE_ENDIAN);
+            // The client thread only reads the config once it sees ready
+            ready = true;
+            startReader();
+            updateSocketServer();
+            LOGGER.info("Touch input ready {} ms after startup began ({} input devices found)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), found.size());
+        }).whenComplete((ignored, error) -> {
+            startup.shutdown();
+            if (error != null) {
+                LOGGER.error("Touch input startup failed", error);
+            }
+        });
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Stops the reader (or replay) and waits for its thread to exit
+    public void stopReader() {
+        readers.stop();
+    }
+    
+    // Reader threads still alive, including retired ones that haven't exited yet
+    public int getAliveReaderCount() {
+        return readers.getAliveThreadCount();
+    }
+    
+    private void readDevice(int generation) throws InterruptedException {
+        Path devicePath = Path.of(config.touchDevicePath);
+        
+        // FileChannel reads are interruptible, which is how stopReader() wakes a blocked reader
+        try (FileChannel device = FileChannel.open(devicePath, StandardOpenOption.READ)) {
+            LOGGER.info("Successfully opened touch device: {}", devicePath);
+            TouchDeviceInfo info = TouchDeviceInfo.read(devicePath);
+            if (info != null && readers.isCurrent(generation)) {
+                openedDevice.set(info);
+            }
             
-            while (running) {
-                try {
-                    device.readFully(eventData);
-                    buffer.position(0);
-                    
-                    // Skip timeval (16 bytes)
-                    buffer.position(16);
-                    
-                    int type = buffer.getShort() & 0xFFFF;
-                    int code = buffer.getShort() & 0xFFFF;
-                    int value = buffer.getInt();
+            // Event structure: timeval (16 bytes) + type (2) + code (2) + value (4) = 24 bytes.
+            // evdev returns as many whole events as are pending, so read several at once.
+            ByteBuffer buffer = ByteBuffer.allocate(EvdevDecoder.EVENT_SIZE * 64).order(ByteOrder.LITTLE_ENDIAN);
+            
+            updateCapture();
+            resetTouchState();
+            boolean resync = false;
+            
+            try {
+                while (readers.isCurrent(generation)) {
+                    if (device.read(buffer) < 0) {
+                        // End of a FIFO or file (harness, tests); wait for more
+                        Thread.sleep(100);
+                        continue;
+                    }
                     
-                    handleInputEvent(type, code, value);
+                    if (inputSuspended) {
+                        // Drain mode: the touches are for another application, throw away
+                        // whole events without looking at them
+                        int whole = buffer.position() / EvdevDecoder.EVENT_SIZE;
+                        drainedEventCount += whole;
+                        buffer.flip();
+                        buffer.position(whole * EvdevDecoder.EVENT_SIZE);
+                        buffer.compact();
+                        resync = true;
+                        if (inputLock.isHeldByCurrentThread()) {
+                            inputLock.unlock();
+                        }
+                        continue;
+                    }
+                    buffer.flip();
                     
-                } catch (IOException e) {
-                    if (running) {
-                        LOGGER.error("Error reading touch events", e);
-                        Thread.sleep(100);
+                    // Still held if the last read ended inside a frame
+                    boolean frameOpen = inputLock.isHeldByCurrentThread();
+                    if (!frameOpen) {
+                        inputLock.lock();
+                    }
+                    while (buffer.remaining() >= EvdevDecoder.EVENT_SIZE) {
+                        // Kernel timestamp (timeval: seconds + microseconds)
+                        long seconds = buffer.getLong();
+                        long micros = buffer.getLong();
+                        long timeMicros = seconds * 1_000_000L + micros;
+                        
+                        int type = buffer.getShort() & 0xFFFF;
+                        int code = buffer.getShort() & 0xFFFF;
+                        int value = buffer.getInt();
+                        frameOpen = !EvdevDecoder.isFrameEnd(type, code);
+                        
+                        if (!readers.isCurrent(generation)) {
+                            // Retired while blocked in read(), a newer reader owns the state now
+                            return;
+                        }
+                        
+                        if (resync) {
+                            // Back from drain mode: fingers may have landed or lifted unseen, so
+                            // start over from a clean state at the next frame boundary
+                            if (!frameOpen) {
+                                resetTouchState();
+                                resync = false;
+                            }
+                            continue;
+                        }
+                        
+                        if (type == EvdevDecoder.EV_ABS && code == EvdevDecoder.ABS_MT_SLOT
+                                && value >= TouchSlots.DEVICE_SLOTS) {
+                            // The slots above belong to injected contacts
+                            value = -1;
+                        }
+                        
+                        TouchCapture activeCapture = capture;
+                        if (activeCapture != null) {
+                            activeCapture.append(timeMicros, type, code, value);
+                        }
+                        
+                        handleInputEvent(timeMicros, type, code, value);
                     }
+                    if (!frameOpen) {
+                        inputLock.unlock();
+                    }
+                    buffer.compact();
+                }
+            } finally {
+                if (inputLock.isHeldByCurrentThread()) {
+                    inputLock.unlock();
                 }
             }
-        } catch (Exception e) {
-            LOGGER. error("Failed to initialize touch input", e);
+        } catch (ClosedByInterruptException e) {
+            // stopReader()
+        } catch (IOException e) {
+            if (readers.isCurrent(generation)) {
+                LOGGER.error("Error reading touch device {}", devicePath, e);
+            }
         }
     }
     
-    private void handleInputEvent(int type, int code, int value) {
-        if (type == EV_ABS) {
-            if (code == ABS_MT_POSITION_X) {
-                currentTouchX = value;
-            } else if (code == ABS_MT_POSITION_Y) {
-                currentTouchY = value;
-            } else if (code == ABS_MT_TRACKING_ID) {
-                if (value != -1) {
-                    onTouchStart(currentTouchX, currentTouchY);
-                } else {
-                    onTouchEnd();
+    // Shared by the device reader, capture replay and the touch socket. timeMicros is the kernel
+    // event time (socket frames may use their own clock).
+    void handleInputEvent(long timeMicros, int type, int code, int value) {
+        decoder.handle(timeMicros, type, code, value);
+    }
+    
+    // Frames sent to the touch socket: decoded and captured like the device's events. Dropped
+    // while input is suspended, as the device's are. Injected contacts have their own slots; the
+    // device's slot is selected again afterwards, since the device won't resend it.
+    private void injectFrame(long timeMicros, int[] events, int count) {
+        if (inputSuspended) {
+            return;
+        }
+        inputLock.lock();
+        try {
+            int deviceSlot = slots.currentSlot();
+            TouchCapture activeCapture = capture;
+            for (int i = 0; i < count * 3; i += 3) {
+                if (activeCapture != null) {
+                    activeCapture.append(timeMicros, events[i], events[i + 1], events[i + 2]);
                 }
+                handleInputEvent(timeMicros, events[i], events[i + 1], events[i + 2]);
             }
-        } else if (type == EV_KEY && code == BTN_TOUCH) {
-            if (value == 1) {
-                onTouchStart(currentTouchX, currentTouchY);
-            } else if (value == 0) {
-                onTouchEnd();
+            if (activeCapture != null) {
+                activeCapture.append(timeMicros, EvdevDecoder.EV_ABS, EvdevDecoder.ABS_MT_SLOT, deviceSlot);
             }
+            handleInputEvent(timeMicros, EvdevDecoder.EV_ABS, EvdevDecoder.ABS_MT_SLOT, deviceSlot);
+        } finally {
+            inputLock.unlock();
         }
     }
     
-    private void onTouchStart(int touchX, int touchY) {
-        if (! touchActive) {
-            touchActive = true;
-            pressedSent = false;
-            currentTouchX = touchX;
-            currentTouchY = touchY;
-            lastDragX = touchX;
-            lastDragY = touchY;
-            
-            LOGGER.debug("Touch started at ({}, {})", touchX, touchY);
+    // The pen bypasses the gestures: the tip is the left button, the barrel button the right
+    // one, and only their changes are queued. Position is published for the client to pick up
+    // once per rendered frame, and drives the per-frame drag like a finger does.
+    private void onPenFrame(long timeMicros) {
+        int x = pen.x();
+        int y = pen.y();
+        if (pen.touchChanged()) {
+            if (pen.isTouching()) {
+                touchSession++;
+            }
+            queue(TouchEvent.button(pen.isTouching() ? TouchEventType.PRESS : TouchEventType.RELEASE,
+                GestureRecognizer.BUTTON_LEFT, x, y, timeMicros));
+        }
+        if (pen.barrelChanged()) {
+            queue(TouchEvent.button(pen.isBarrelPressed() ? TouchEventType.PRESS : TouchEventType.RELEASE,
+                GestureRecognizer.BUTTON_RIGHT, x, y, timeMicros));
         }
+        currentTouchX = x;
+        currentTouchY = y;
+        touchActive = pen.isTouching();
+        pen.publish();
     }
     
-public void processTouchEvents(MinecraftClient client) {
-    Screen currentScreen = client.currentScreen;
+    // Tags the event with the touch session it belongs to and hands it to the client thread
+    private void queue(TouchEvent event) {
+        event.session = touchSession;
+        eventQueue.offer(event);
+    }
     
-    if (currentScreen == null) {
-        if (touchActive) {
-            touchActive = false;
-            pressedSent = false;
+    // A contact's position arrives after its tracking id, so everything is decided
+    // once the frame is complete
+    private void onFrameEnd(long timeMicros) {
+        slots.endFrame();
+        int primary = slots.primarySlot();
+        if (primary >= 0) {
+            currentTouchX = slots.x(primary);
+            currentTouchY = slots.y(primary);
+        }
+        if (primary >= 0 && !touchActive) {
+            touchSession++;
+        }
+        touchActive = primary >= 0;
+        
+        TouchSocketServer server = socketServer;
+        if (server != null) {
+            server.publish(timeMicros, slots);
+        }
+        if (framesWanted) {
+            queueFrame(timeMicros);
+        }
+        pointers.onFrame(timeMicros, slots, config.multiPointerEnabled, pointerListener);
+        
+        if (config.gesturesEnabled) {
+            if (slots.liveContactRejected()) {
+                // A finger turned out to be a palm: abandon the gesture instead of finishing it
+                gestures.cancel(timeMicros, slots);
+            }
+            gestures.onFrame(timeMicros, slots);
+        } else if (touchActive && !plainPressSent) {
+            plainPressSent = true;
+            queue(TouchEvent.button(TouchEventType.PRESS, 0, currentTouchX, currentTouchY, timeMicros));
+            LOGGER.debug("Touch started at ({}, {})", currentTouchX, currentTouchY);
+        } else if (!touchActive && plainPressSent) {
+            plainPressSent = false;
+            queue(TouchEvent.button(TouchEventType.RELEASE, 0, currentTouchX, currentTouchY, timeMicros));
+            LOGGER.debug("Touch ended at ({}, {})", currentTouchX, currentTouchY);
         }
-        return;
     }
     
-    if (touchActive) {
-        // Get GUI scale
-        double guiScale = client.options.getGuiScale().getValue();
+    // Snapshot of the live contacts for a screen touch handler, as (slot, x, y) triples in a
+    // pooled buffer that the client thread hands back once the frame is dispatched
+    private void queueFrame(long timeMicros) {
+        int count = slots.activeCount();
+        int[] pointers = eventQueue.takeFrameBuffer();
+        for (int n = 0; n < count; n++) {
+            int slot = slots.activeSlot(n);
+            pointers[n * 3] = slot;
+            pointers[n * 3 + 1] = slots.x(slot);
+            pointers[n * 3 + 2] = slots.y(slot);
+        }
+        queue(TouchEvent.frame(pointers, count, slots.primarySlot(), timeMicros));
+    }
+    
+    // Called before a new stream of events (device opened, replay started)
+    private void resetTouchState() {
+        decoder.reset();
+        pointers.resetReader();
+        gestures.reset();
+        plainPressSent = false;
+        touchActive = false;
+    }
+    
+    public void processTouchEvents(MinecraftClient client) {
+        if (!ready) {
+            return;
+        }
+        Screen currentScreen = client.currentScreen;
         
-        // Map touch to screen coordinates (for widget interaction)
-        int[] currentScreenCoords = config.mapCoordinates(currentTouchX, currentTouchY, guiScale);
+        applyDeviceProfile(client);
         
-        // Calculate physical cursor position (for mouse cursor)
-        double systemScale = config. getEffectiveSystemScale(client);
-        double physicalX = currentScreenCoords[0] * (guiScale / systemScale);
-        double physicalY = currentScreenCoords[1] * (guiScale / systemScale);
+        if (updateInputState(client)) {
+            return;
+        }
         
-        // Update actual cursor position
-        try {
-            ((MouseMixin) client.mouse).invokeOnCursorPos(
-                client.getWindow().getHandle(),
-                physicalX,
-                physicalY
-            );
-        } catch (Exception e) {
-            LOGGER.debug("Failed to update cursor position", e);
+        if (currentScreen == null) {
+            // Nothing to click: taps on the HUD zones are used, whatever else the reader
+            // queued is dropped
+            HudZones zones = getHudZones(client);
+            if (zones != null) {
+                processHudZones(client, zones);
+            }
+            eventQueue.clear();
+            drainedScreen = null;
+            cancelCapture();
+            slotTouch.reset();
+            pointers.reset();
+            touchScrolling = false;
+            kinetic.stop();
+            return;
         }
         
-        // Send press on first frame
-        if (!pressedSent) {
-            try {
-                // Move cursor to position first
-                currentScreen.mouseMoved((double) currentScreenCoords[0], (double) currentScreenCoords[1]);
-                
-                // Then press
-                simulateMouseClick(client, currentScreen, currentScreenCoords[0], currentScreenCoords[1], 0, true);
-                
-                pressedSent = true;
-                lastSentX = currentScreenCoords[0];
-                lastSentY = currentScreenCoords[1];
-                lastDragX = currentTouchX;
-                lastDragY = currentTouchY;
-                
-                LOGGER.info("PRESS at ({}, {})", currentScreenCoords[0], currentScreenCoords[1]);
-            } catch (Exception e) {
-                LOGGER. error("Failed to press", e);
+        if (clientCursor == null) {
+            clientCursor = new ClientMouse(client);
+        }
+        
+        processTouchEvents(currentScreen, getTransform(client), clientCursor);
+    }
+    
+    // Called every tick and before every frame's dispatch. Returns true while touch input is
+    // suspended: the window is unfocused or minimized, or no screen is open and camera look and
+    // HUD zones are off, so nothing in the game would use a touch.
+    public boolean updateInputState(MinecraftClient client) {
+        if (!ready) {
+            return true;
+        }
+        boolean suspend = config.suspendWhenUnfocused
+            && (!client.isWindowFocused() || GLFW.glfwGetWindowAttrib(client.getWindow().getHandle(), GLFW.GLFW_ICONIFIED) != 0);
+        if (client.currentScreen == null && (!(config.touchLookEnabled || config.hudZonesEnabled) || client.player == null)) {
+            suspend = true;
+        }
+        
+        if (suspend != inputSuspended) {
+            if (suspend) {
+                // Let go of everything now so nothing is held when input comes back
+                cancelInput(client.currentScreen);
             }
-        } else {
-            // Continuous drag
-            if (currentTouchX != lastDragX || currentTouchY != lastDragY) {
-                try {
-                    double dragDeltaX = currentScreenCoords[0] - lastSentX;
-                    double dragDeltaY = currentScreenCoords[1] - lastSentY;
-                    
-                    // Update cursor position before drag
-                    currentScreen.mouseMoved((double) currentScreenCoords[0], (double) currentScreenCoords[1]);
-                    
-                    // Then send drag
-                    boolean handled = currentScreen.mouseDragged(
-                        (double) currentScreenCoords[0], 
-                        (double) currentScreenCoords[1], 
-                        0,
-                        dragDeltaX, 
-                        dragDeltaY
-                    );
-                    
-                    LOGGER.debug("DRAG to ({}, {}) delta({}, {}) handled={}", 
-                        currentScreenCoords[0], currentScreenCoords[1], 
-                        dragDeltaX, dragDeltaY, handled);
-                    
-                    lastSentX = currentScreenCoords[0];
-                    lastSentY = currentScreenCoords[1];
-                    lastDragX = currentTouchX;
-                    lastDragY = currentTouchY;
-                } catch (Exception e) {
-                    LOGGER.error("Failed to drag", e);
+            inputSuspended = suspend;
+            LOGGER.debug("Touch input {} ({} events drained so far)", suspend ? "suspended" : "resumed", drainedEventCount);
+        }
+        return suspend;
+    }
+    
+    private void cancelInput(Screen currentScreen) {
+        letGo(currentScreen);
+        look.reset();
+        eventQueue.clear();
+    }
+    
+    // Releases whatever the default handling holds: button, slot gesture, scroll
+    private void letGo(Screen currentScreen) {
+        if (currentScreen != null && pressedButton >= 0) {
+            release(currentScreen, pressedButton, new int[]{lastSentX, lastSentY});
+        }
+        cancelCapture();
+        slotTouch.cancel(currentScreen);
+        pointers.releaseAll();
+        touchScrolling = false;
+        kinetic.stop();
+        pendingScrollX = 0;
+        pendingScrollY = 0;
+    }
+    
+    public boolean isInputSuspended() {
+        return inputSuspended;
+    }
+    
+    // Events the reader threw away unread while input was suspended
+    public long getDrainedEventCount() {
+        return drainedEventCount;
+    }
+    
+    // Palm rejection statistics, shown in the config screen for tuning
+    public long getRejectedBySize() {
+        return slots.getRejectedBySize();
+    }
+    
+    public long getRejectedByPressure() {
+        return slots.getRejectedByPressure();
+    }
+    
+    // Contacts that landed outside the game window (windowed or output mapping)
+    public long getRejectedOutside() {
+        return slots.getRejectedOutside();
+    }
+    
+    public int getLastContactMajor() {
+        return slots.getLastContactMajor();
+    }
+    
+    public int getLastContactPressure() {
+        return slots.getLastContactPressure();
+    }
+    
+    // Scroll/pinch events merged into an earlier one while the client was behind
+    public long getCoalescedEventCount() {
+        return eventQueue.getCoalescedCount();
+    }
+    
+    // Events discarded because the queue was full or they were stale after a screen change
+    public long getDroppedEventCount() {
+        return eventQueue.getDroppedCount();
+    }
+    
+    // The active profile's mapping settings changed (calibration, accuracy correction): drops
+    // its compiled mapping, the next frame rebuilds it
+    public void invalidateTransform() {
+        if (config.activeProfile != null) {
+            profileTransforms.remove(config.activeProfile);
+        }
+        dropTransform();
+    }
+    
+    // The framebuffer was resized or the GUI scale changed: every compiled mapping is stale
+    public void invalidateAllTransforms() {
+        profileTransforms.clear();
+        dropTransform();
+    }
+    
+    // Stops using the current mapping; the next frame takes the active profile's compiled one
+    // if it is still good, or compiles it
+    private void dropTransform() {
+        transform = null;
+        slots.setRegion(null);
+    }
+    
+    // Before newConfig replaces the config: forgets the compiled mappings of the profiles whose
+    // mapping it changes, the others stay usable
+    private void forgetChangedMappings(TouchConfig newConfig) {
+        profileTransforms.keySet().removeIf(key ->
+            !DeviceProfile.sameMapping(workingProfile(config, key), workingProfile(newConfig, key)));
+    }
+    
+    // A profile's settings as they are in effect: the active one's live in the config itself
+    private static DeviceProfile workingProfile(TouchConfig config, String key) {
+        if (key.equals(config.activeProfile)) {
+            DeviceProfile working = new DeviceProfile();
+            working.copyFrom(config);
+            return working;
+        }
+        return config.profiles.get(key);
+    }
+    
+    // Switches to the profile of the device the reader opened, creating it on first sight.
+    // Only fields are copied, and the profile's compiled mapping is reused if there is one.
+    private void applyDeviceProfile(MinecraftClient client) {
+        TouchDeviceInfo device = openedDevice.getAndSet(null);
+        if (device == null) {
+            return;
+        }
+        boolean created = config.useDevice(device);
+        dropTransform();
+        getTransform(client);
+        if (created) {
+            config.save();
+        }
+    }
+    
+    // Makes a stored profile active in place (client thread, the profile selector): its compiled
+    // mapping is reused, nothing is reparsed, and the reader is only reopened if the profile's
+    // device is at another path. Unsaved edits to the profile being left are kept in it.
+    public boolean selectProfile(MinecraftClient client, String key) {
+        String leaving = config.activeProfile;
+        DeviceProfile stored = leaving != null && config.profiles.containsKey(leaving)
+            ? config.profiles.get(leaving).copy() : null;
+        String previousPath = config.touchDevicePath;
+        if (!config.selectProfile(key)) {
+            return false;
+        }
+        if (leaving != null && !DeviceProfile.sameMapping(stored, config.profiles.get(leaving))) {
+            profileTransforms.remove(leaving);
+        }
+        dropTransform();
+        getTransform(client);
+        config.save();
+        
+        if (!replaying && !config.touchDevicePath.equals(previousPath)) {
+            LOGGER.info("Touch profile {} is on {}, reopening", key, config.touchDevicePath);
+            stopReader();
+            stopCapture();
+            startReader();
+        }
+        return true;
+    }
+    
+    TouchTransform getTransform(MinecraftClient client) {
+        TouchTransform current = transform;
+        if (current == null) {
+            Window window = client.getWindow();
+            double systemScale = config.getEffectiveSystemScale(window.getWidth(), window.getHeight());
+            // A replay maps with the capture's settings, which don't belong in the profiles' cache
+            String key = replaying ? null : config.activeProfile;
+            CompiledMapping compiled = key != null ? profileTransforms.get(key) : null;
+            if (compiled != null && compiled.systemScale() == systemScale) {
+                current = compiled.transform();
+            } else {
+                current = TouchTransform.compile(config, window.getFramebufferWidth(), window.getFramebufferHeight(),
+                    window.getWidth(), window.getHeight(), window.getScaleFactor(), systemScale);
+                if (key != null) {
+                    profileTransforms.put(key, new CompiledMapping(current, systemScale));
                 }
+                LOGGER.debug("Compiled touch transform for {}x{} framebuffer, GUI scale {}",
+                    window.getFramebufferWidth(), window.getFramebufferHeight(), window.getScaleFactor());
             }
+            transform = current;
+            slots.setRegion(current);
         }
+        return current;
     }
     
-    // Process release events
-    TouchEvent event;
-    while ((event = eventQueue.poll()) != null) {
-        processEvent(client, event);
+    // Called once per rendered frame from Mouse.updateMouse. Returns true if getLookDeltaX/Y
+    // hold finger movement to add to the mouse deltas, which the game then applies with the
+    // player's sensitivity, invert and smoothing settings like any mouse movement.
+    public boolean updateTouchLook(MinecraftClient client) {
+        if (!ready || !config.touchLookEnabled || client.currentScreen != null || client.player == null || inputSuspended) {
+            look.reset();
+            return false;
+        }
+        return look.update(config, getTransform(client), getHudZones(client), touchActive, touchSession,
+            currentTouchX, currentTouchY);
     }
-}
     
-    private void onTouchEnd() {
-        if (touchActive) {
-            touchActive = false;
-            pressedSent = false;
-            lastDragX = 0;
-            lastDragY = 0;
-            
-            eventQueue.offer(new TouchEvent(TouchEventType.LEFT_RELEASE, lastSentX, lastSentY));
-            
-            LOGGER.debug("Touch ended at screen ({}, {})", lastSentX, lastSentY);
+    // The HUD zones for the current GUI size, null while they are off or the HUD is hidden
+    private HudZones getHudZones(MinecraftClient client) {
+        if (!config.hudZonesEnabled || client.player == null || client.options.hudHidden) {
+            return null;
         }
+        Window window = client.getWindow();
+        hudZones.update(config, window.getScaledWidth(), window.getScaledHeight());
+        return hudZones;
     }
     
-    private void processEvent(MinecraftClient client, TouchEvent event) {
-        Screen currentScreen = client.currentScreen;
+    // A tap (the left press) on a zone presses that zone's key binding once, as if its key had
+    // been pressed: the game selects the slot or opens the screen on its next tick, with its
+    // own rules (spectator menu, horse inventory, toolbars). Nothing else is done with the touch.
+    private void processHudZones(MinecraftClient client, HudZones zones) {
+        long staleBeforeNanos = drainedScreen != null && config.staleEventMs > 0
+            ? System.nanoTime() - config.staleEventMs * 1_000_000L
+            : Long.MIN_VALUE;
+        TouchTransform current = getTransform(client);
+        TouchEvent event;
+        while ((event = eventQueue.poll(staleBeforeNanos)) != null) {
+            if (event.type != TouchEventType.PRESS || event.button != GestureRecognizer.BUTTON_LEFT) {
+                continue;
+            }
+            current.toGui(event.x, event.y, zoneGui);
+            int zone = zones.zoneAt(zoneGui[0], zoneGui[1]);
+            if (zone == HudZones.NONE) {
+                continue;
+            }
+            KeyBinding key = HudZones.isHotbarSlot(zone) ? client.options.hotbarKeys[zone]
+                : zone == HudZones.INVENTORY ? client.options.inventoryKey
+                : client.options.chatKey;
+            KeyBindingMixin accessor = (KeyBindingMixin) key;
+            accessor.setTimesPressed(accessor.getTimesPressed() + 1);
+            LOGGER.debug("HUD zone {} tapped at ({}, {})", zone, zoneGui[0], zoneGui[1]);
+        }
+    }
+    
+    // Marks the shortcut zones, which unlike the hotbar slots have nothing of the game's own
+    // drawn under them. Called from the HUD after the hotbar.
+    public void drawHudZones(MinecraftClient client, DrawContext context) {
+        if (!ready || client.currentScreen != null) {
+            return;
+        }
+        HudZones zones = getHudZones(client);
+        if (zones == null) {
+            return;
+        }
+        drawHudZone(client, context, zones, HudZones.INVENTORY, "...");
+        drawHudZone(client, context, zones, HudZones.CHAT, "Chat");
+    }
+    
+    private void drawHudZone(MinecraftClient client, DrawContext context, HudZones zones, int zone, String label) {
+        if (!zones.isEnabled(zone)) {
+            return;
+        }
+        zones.getBounds(zone, zoneBounds);
+        context.fill(zoneBounds[0], zoneBounds[1], zoneBounds[2], zoneBounds[3], 0x60000000);
+        context.drawCenteredTextWithShadow(client.textRenderer, label, (zoneBounds[0] + zoneBounds[2]) / 2,
+            (zoneBounds[1] + zoneBounds[3] - client.textRenderer.fontHeight) / 2 + 1, 0xFFFFFFFF);
+    }
+    
+    public double getLookDeltaX() {
+        return look.getDeltaX();
+    }
+    
+    public double getLookDeltaY() {
+        return look.getDeltaY();
+    }
+    
+    // Screen-level part of processTouchEvents, also driven directly by the headless harness.
+    void processTouchEvents(Screen currentScreen, TouchTransform transform, CursorTarget cursor) {
+        // A finger held still sends nothing, so long-presses are timed from here
+        if (config.gesturesEnabled) {
+            gestures.pollTimeouts();
+        }
         
-        if (currentScreen == null) {
+        if (pressedButton >= 0 && currentScreen != capturedScreen) {
+            // The screen that took the press closed: nothing to drag or release any more
+            LOGGER.debug("Captured screen closed, dropping button {}", pressedButton);
+            cancelCapture();
+        }
+        slotTouch.track(currentScreen);
+        pointers.track(currentScreen);
+        
+        if (currentScreen != frameScreen) {
+            // Resolved once per screen, through the handlers' per-class cache
+            frameScreen = currentScreen;
+            frameHandler = touchHandlers.resolve(currentScreen);
+            framesWanted = frameHandler != null;
+            consumedSession = -1;
+        }
+        
+        // After a screen change, drop what was meant for the previous one
+        boolean screenChanged = currentScreen != drainedScreen;
+        drainedScreen = currentScreen;
+        long staleBeforeNanos = screenChanged && config.staleEventMs > 0
+            ? System.nanoTime() - config.staleEventMs * 1_000_000L
+            : Long.MIN_VALUE;
+        
+        // Presses, releases and scrolls, in the order they happened
+        TouchEvent event;
+        while ((event = eventQueue.poll(staleBeforeNanos)) != null) {
+            if (event.type == TouchEventType.FRAME) {
+                dispatchFrame(currentScreen, event, transform);
+                eventQueue.recycle(event);
+            } else if (event.session != consumedSession) {
+                processEvent(currentScreen, event, transform, cursor);
+            }
+        }
+        
+        if (touchScrolling && touchActive) {
+            followScrollFinger(currentTouchX, currentTouchY, transform);
+        } else if (kinetic.isFlinging()) {
+            if (currentScreen != scrollScreen || touchActive) {
+                // A new touch or another screen stops the fling
+                kinetic.stop();
+            } else {
+                pendingScrollY += kinetic.step(System.nanoTime()) / config.scrollPixelsPerNotch;
+            }
+        }
+        
+        if (pendingScrollX != 0 || pendingScrollY != 0) {
+            scrollAt(currentScreen, scrollAnchor, cursor, transform.getCursorScale(), pendingScrollX, pendingScrollY);
+            pendingScrollX = 0;
+            pendingScrollY = 0;
+        }
+        
+        // Spreading a stack: every slot the finger crosses gets a share
+        if (slotTouch.isDistributing() && touchActive) {
+            transform.toGui(currentTouchX, currentTouchY, frameGui);
+            moveCursor(cursor, frameGui, transform.getCursorScale());
+            slotTouch.dragTo(frameGui[0], frameGui[1]);
+        }
+        
+        // Continuous drag
+        if (pressedButton >= 0 && touchActive) {
+            int touchX = currentTouchX;
+            int touchY = currentTouchY;
+            if (touchX != lastDragX || touchY != lastDragY) {
+                transform.toGui(touchX, touchY, frameGui);
+                dragTo(frameGui[0], frameGui[1]);
+                lastDragX = touchX;
+                lastDragY = touchY;
+            }
+        }
+        pointers.dragAll(transform);
+        
+        // Pen hover moves the cursor, once per frame however many samples arrived. With the
+        // barrel button held it drags instead.
+        if (pen.pollHover(penHover) && transform.contains(penHover[0], penHover[1])) {
+            transform.toGui(penHover[0], penHover[1], frameGui);
+            if (pressedButton >= 0) {
+                dragTo(frameGui[0], frameGui[1]);
+            } else {
+                moveCursor(cursor, frameGui, transform.getCursorScale());
+                if (config.dispatchMode == TouchConfig.DispatchMode.DIRECT) {
+                    currentScreen.mouseMoved(frameGui[0], frameGui[1]);
+                }
+            }
+        }
+    }
+    
+    // Hands a frame to the screen's touch handler. Once it consumes a frame, the rest of that
+    // touch session is its own and the default handling lets go of it.
+    private void dispatchFrame(Screen currentScreen, TouchEvent event, TouchTransform transform) {
+        if (frameHandler == null) {
+            return;
+        }
+        int count = event.pointerCount;
+        for (int n = 0; n < count; n++) {
+            frameIds[n] = event.pointers[n * 3];
+            frameRawX[n] = event.pointers[n * 3 + 1];
+            frameRawY[n] = event.pointers[n * 3 + 2];
+            transform.toGui(frameRawX[n], frameRawY[n], frameGui);
+            frameGuiX[n] = frameGui[0];
+            frameGuiY[n] = frameGui[1];
+        }
+        
+        boolean consumed;
+        try {
+            consumed = frameHandler.onTouchFrame(currentScreen,
+                frameView.set(event.timeMicros, event.session, count, event.button));
+        } catch (Exception e) {
+            LOGGER.error("Touch handler for {} failed", currentScreen.getClass().getName(), e);
+            consumed = false;
+        }
+        if (consumed && consumedSession != event.session) {
+            consumedSession = event.session;
+            letGo(currentScreen);
+        }
+    }
+    
+    private void processEvent(Screen currentScreen, TouchEvent event, TouchTransform transform, CursorTarget cursor) {
+        // In windowed mapping, touches that land outside the game window belong to other
+        // applications; releases and drag ends still go through so nothing stays pressed
+        if (!transform.contains(event.type == TouchEventType.DRAG_START ? event.fromX : event.x,
+                event.type == TouchEventType.DRAG_START ? event.fromY : event.y)
+                && event.type != TouchEventType.RELEASE && event.type != TouchEventType.DRAG_END
+                && event.type != TouchEventType.POINTER_UP) {
             return;
         }
         
+        // Map touch to screen coordinates (for widget interaction)
+        int[] currentScreenCoords = transform.toGui(event.x, event.y);
+        
         switch (event.type) {
-            case LEFT_PRESS:
-                simulateMouseClick(client, currentScreen, event.x, event.y, 0, true);
-                LOGGER.info("LEFT_PRESS at ({}, {})", event.x, event.y);
+            case PRESS:
+                if (slotTouch.press(currentScreen, event.button, currentScreenCoords[0], currentScreenCoords[1], event.timeMicros)) {
+                    moveCursor(cursor, currentScreenCoords, transform.getCursorScale());
+                    break;
+                }
+                press(currentScreen, event.button, event.x, event.y, transform, cursor);
+                break;
+                
+            case RELEASE:
+                if (slotTouch.release(event.button)) {
+                    break;
+                }
+                release(currentScreen, event.button, currentScreenCoords);
+                break;
+                
+            case DRAG_START:
+                kinetic.stop();
+                int[] downCoords = transform.toGui(event.fromX, event.fromY);
+                if (slotTouch.dragStart(currentScreen, downCoords[0], downCoords[1])) {
+                    moveCursor(cursor, currentScreenCoords, transform.getCursorScale());
+                    slotTouch.dragTo(currentScreenCoords[0], currentScreenCoords[1]);
+                } else if (config.touchScrollEnabled && pressedButton < 0
+                        && Math.abs(currentScreenCoords[1] - downCoords[1]) > Math.abs(currentScreenCoords[0] - downCoords[0])
+                        && isScrollableAt(currentScreen, downCoords[0], downCoords[1])) {
+                    // Vertical drag over a list: scroll it, the content follows the finger
+                    touchScrolling = true;
+                    scrollScreen = currentScreen;
+                    scrollAnchor[0] = downCoords[0];
+                    scrollAnchor[1] = downCoords[1];
+                    scrollLastY = downCoords[1];
+                    followScrollFinger(event.x, event.y, transform);
+                } else {
+                    // Press where the finger landed, the per-frame drag catches up from there
+                    press(currentScreen, 0, event.fromX, event.fromY, transform, cursor);
+                }
                 break;
                 
-            case LEFT_RELEASE:
-                simulateMouseClick(client, currentScreen, event.x, event. y, 0, false);
-                LOGGER.info("LEFT_RELEASE at ({}, {})", event.x, event.y);
+            case DRAG_END:
+                if (slotTouch.isDistributing()) {
+                    slotTouch.dragEnd(currentScreenCoords[0], currentScreenCoords[1]);
+                    break;
+                }
+                if (!touchScrolling) {
+                    release(currentScreen, 0, currentScreenCoords);
+                    break;
+                }
+                followScrollFinger(event.x, event.y, transform);
+                touchScrolling = false;
+                if (currentScreen == scrollScreen) {
+                    kinetic.fling(verticalGuiVelocity(event, currentScreenCoords, transform), config.flingDecayMs, System.nanoTime());
+                }
                 break;
+                
+            case SCROLL:
+                // Content follows the fingers, like scrolling on a phone
+                int[] fromCoords = transform.toGui(event.fromX, event.fromY);
+                double notch = config.scrollPixelsPerNotch;
+                kinetic.stop();
+                scrollAnchor[0] = currentScreenCoords[0];
+                scrollAnchor[1] = currentScreenCoords[1];
+                pendingScrollX += (currentScreenCoords[0] - fromCoords[0]) / notch;
+                pendingScrollY += (currentScreenCoords[1] - fromCoords[1]) / notch;
+                break;
+                
+            case PINCH:
+                // Spreading the fingers scrolls up, pinching them together scrolls down
+                scrollAnchor[0] = currentScreenCoords[0];
+                scrollAnchor[1] = currentScreenCoords[1];
+                pendingScrollY += (event.scale - 1.0) * PINCH_SCROLL_NOTCHES;
+                break;
+                
+            case POINTER_DOWN:
+                pointers.press(currentScreen, event.button, currentScreenCoords[0], currentScreenCoords[1], heldElement());
+                break;
+                
+            case POINTER_UP:
+                pointers.release(event.button, currentScreenCoords[0], currentScreenCoords[1]);
+                break;
+        }
+    }
+    
+    // The element the primary finger is pressing, if any. Through the mouse handler the screen
+    // is captured and the widget is the child it focused.
+    private Element heldElement() {
+        if (pressedButton < 0) {
+            return null;
+        }
+        return capturedViaMouse ? capturedScreen.getFocused() : capturedElement;
+    }
+    
+    private void press(Screen currentScreen, int button, int touchX, int touchY, TouchTransform transform, CursorTarget cursor) {
+        if (pressedButton >= 0) {
+            // Only one button is held at a time
+            return;
+        }
+        int[] currentScreenCoords = transform.toGui(touchX, touchY);
+        try {
+            // Move cursor to position first
+            moveCursor(cursor, currentScreenCoords, transform.getCursorScale());
+            
+            if (config.dispatchMode == TouchConfig.DispatchMode.MOUSE) {
+                // Same path as a real click: the screen hit-tests, focuses and tracks the
+                // drag itself, so the screen is what gets captured
+                if (config.debugCirclesEnabled) {
+                    ClickVisualizer.recordClick(currentScreenCoords[0], currentScreenCoords[1]);
+                }
+                cursor.mouseButton(button, true);
+                capturedElement = currentScreen;
+                capturedViaMouse = true;
+            } else {
+                currentScreen.mouseMoved((double) currentScreenCoords[0], (double) currentScreenCoords[1]);
+                capturedElement = simulateMouseClick(currentScreen, currentScreenCoords[0], currentScreenCoords[1], button, true);
+                capturedViaMouse = false;
+            }
+            capturedScreen = currentScreen;
+            capturedCursor = cursor;
+            capturedCursorScale = transform.getCursorScale();
+            
+            pressedButton = button;
+            lastSentX = currentScreenCoords[0];
+            lastSentY = currentScreenCoords[1];
+            lastDragX = touchX;
+            lastDragY = touchY;
+            
+            LOGGER.info("PRESS button {} at ({}, {})", button, currentScreenCoords[0], currentScreenCoords[1]);
+        } catch (Exception e) {
+            LOGGER. error("Failed to press", e);
+        }
+    }
+    
+    private void release(Screen currentScreen, int button, int[] currentScreenCoords) {
+        if (pressedButton != button) {
+            // The press never reached a screen
+            return;
+        }
+        if (currentScreen != capturedScreen) {
+            // Pressed on a screen that has closed since, the new one never saw the press
+            cancelCapture();
+            return;
+        }
+        
+        // Catch up with movement since the last drag
+        if (currentScreenCoords[0] != lastSentX || currentScreenCoords[1] != lastSentY) {
+            dragTo(currentScreenCoords[0], currentScreenCoords[1]);
+        }
+        
+        try {
+            if (capturedViaMouse) {
+                capturedCursor.mouseButton(button, false);
+            } else {
+                capturedElement.mouseReleased(lastSentX, lastSentY, button);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to release", e);
+        }
+        endCapture();
+        LOGGER.info("RELEASE button {} at ({}, {})", button, lastSentX, lastSentY);
+    }
+    
+    // Drops a press without releasing it anywhere (its screen is gone)
+    private void cancelCapture() {
+        if (capturedViaMouse && capturedCursor != null) {
+            capturedCursor.cancelButton();
+        }
+        endCapture();
+    }
+    
+    private void endCapture() {
+        pressedButton = -1;
+        capturedScreen = null;
+        capturedElement = null;
+        capturedCursor = null;
+        capturedViaMouse = false;
+    }
+    
+    // Scrolls by however far the finger moved vertically since the last call
+    private void followScrollFinger(int touchX, int touchY, TouchTransform transform) {
+        int y = transform.toGui(touchX, touchY)[1];
+        pendingScrollY += (y - scrollLastY) / config.scrollPixelsPerNotch;
+        scrollLastY = y;
+    }
+    
+    // Release velocity (touch units per second, from kernel timestamps) converted to GUI pixels
+    // per second by mapping where the finger was a short while before it lifted
+    private double verticalGuiVelocity(TouchEvent event, int[] releaseCoords, TouchTransform transform) {
+        double span = 0.05;
+        int[] earlierCoords = transform.toGui((int) (event.x - event.velocityX * span),
+            (int) (event.y - event.velocityY * span));
+        return (releaseCoords[1] - earlierCoords[1]) / span;
+    }
+    
+    private static boolean isScrollableAt(Screen screen, int x, int y) {
+        for (var element : screen.children()) {
+            if (element instanceof ScrollableWidget && element.isMouseOver(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void scrollAt(Screen currentScreen, int[] screenCoords, CursorTarget cursor, double cursorScale,
+                          double horizontal, double vertical) {
+        if (horizontal == 0 && vertical == 0) {
+            return;
+        }
+        try {
+            moveCursor(cursor, screenCoords, cursorScale);
+            boolean handled = currentScreen.mouseScrolled(screenCoords[0], screenCoords[1], horizontal, vertical);
+            LOGGER.debug("SCROLL at ({}, {}) by ({}, {}) handled={}", screenCoords[0], screenCoords[1], horizontal, vertical, handled);
+        } catch (Exception e) {
+            LOGGER.error("Failed to scroll", e);
+        }
+    }
+    
+    private void moveCursor(CursorTarget cursor, int[] screenCoords, double cursorScale) {
+        moveCursor(cursor, screenCoords[0], screenCoords[1], cursorScale);
+    }
+    
+    private void moveCursor(CursorTarget cursor, int x, int y, double cursorScale) {
+        // Update actual cursor position
+        try {
+            cursor.moveCursor(x * cursorScale, y * cursorScale);
+        } catch (Exception e) {
+            LOGGER.debug("Failed to update cursor position", e);
         }
     }
     
-    private void simulateMouseClick(MinecraftClient client, Screen screen, int x, int y, int button, boolean pressed) {
+    // Sends the move to the captured element only
+    private void dragTo(int x, int y) {
+        moveCursor(capturedCursor, x, y, capturedCursorScale);
+        if (capturedViaMouse) {
+            // The game's mouse handler already turned the cursor move into mouseMoved and
+            // mouseDragged on the screen
+            lastSentX = x;
+            lastSentY = y;
+            return;
+        }
+        try {
+            double dragDeltaX = x - lastSentX;
+            double dragDeltaY = y - lastSentY;
+            
+            // Update cursor position before drag
+            capturedElement.mouseMoved((double) x, (double) y);
+            
+            // Then send drag
+            boolean handled = capturedElement.mouseDragged((double) x, (double) y, pressedButton, dragDeltaX, dragDeltaY);
+            
+            LOGGER.debug("DRAG to ({}, {}) delta({}, {}) handled={}", x, y, dragDeltaX, dragDeltaY, handled);
+            
+            lastSentX = x;
+            lastSentY = y;
+        } catch (Exception e) {
+            LOGGER.error("Failed to drag", e);
+        }
+    }
+    
+    // Returns the element that took the event: the widget that was clicked, or the screen
+    Element simulateMouseClick(Screen screen, int x, int y, int button, boolean pressed) {
         try {
             if (pressed) {
                 // Record click for visualization if enabled
@@ -265,129 +1238,325 @@ public void processTouchEvents(MinecraftClient client) {
                 
                 LOGGER.info("CLICK at ({}, {}) on screen:  {}", x, y, screen. getClass().getSimpleName());
                 
-                boolean widgetClicked = false;
-                
-                // Try to find and click widgets
+                // Try to find and click widgets (left button only, widgets handle
+                // other buttons through the screen)
                 for (var widget : screen.children()) {
-                    if (widget instanceof net.minecraft.client.gui.widget. ClickableWidget) {
+                    if (button == 0 && widget instanceof net.minecraft.client.gui.widget. ClickableWidget) {
                         net.minecraft.client.gui.widget.ClickableWidget clickable = 
                             (net.minecraft. client.gui.widget.ClickableWidget) widget;
                         
-                        if (clickable. isMouseOver((double) x, (double) y)) {
-                            clickable.onClick((double) x, (double) y);
+                        // mouseClicked runs onClick itself, once
+                        if (clickable. isMouseOver((double) x, (double) y) && clickable.mouseClicked(x, y, button)) {
                             LOGGER.info("SUCCESS:  Clicked widget '{}' at ({}, {})", 
                                 clickable.getMessage().getString(), x, y);
-                            
-                            try {
-                                clickable.mouseClicked(x, y, button);
-                                LOGGER.info("Also called mouseClicked on widget");
-                            } catch (Exception e) {
-                                // Some widgets don't have mouseClicked, that's ok
-                            }
-                            
-                            widgetClicked = true;
-                            break;
+                            return clickable;
                         }
                     }
                 }
                 
-                if (!widgetClicked) {
-                    LOGGER.info("No widget found at ({}, {}), using screen. mouseClicked()", x, y);
-                    boolean consumed = screen.mouseClicked(x, y, button);
-                    LOGGER.info("screen.mouseClicked() returned: {}", consumed);
-                }
+                // The screen routes its own drags and release to the child it focused
+                LOGGER.info("No widget found at ({}, {}), using screen. mouseClicked()", x, y);
+                boolean consumed = screen.mouseClicked(x, y, button);
+                LOGGER.info("screen.mouseClicked() returned: {}", consumed);
             } else {
                 screen.mouseReleased(x, y, button);
             }
         } catch (Exception e) {
             LOGGER.error("Failed to simulate mouse click", e);
         }
+        return screen;
     }
     
     public void onScreenOpen(Screen screen) {
         LOGGER.debug("Screen opened: {}", screen. getClass().getSimpleName());
+        slotTouch.onScreenOpen(screen);
     }
     
     public int[] getLastTouchPosition() {
         return new int[]{currentTouchX, currentTouchY};
     }
     
-    public void stop() {
-        running = false;
-        try {
-            if (device != null) {
-                device. close();
-            }
-        } catch (IOException e) {
-            LOGGER. error("Error closing touch device", e);
-        }
+    // Called when the client stops: no reader or capture may outlive the game
+    public void shutdown() {
+        shuttingDown = true;
+        replaying = false;
+        boolean stopped = readers.stop();
+        stopCapture();
+        stopSocketServer();
+        LOGGER.info("Touch input shut down ({} reader threads alive{})", readers.getAliveThreadCount(),
+            stopped ? "" : ", reader did not stop in time");
     }
     
-    // Helper class for touch events
-    private static class TouchEvent {
-        final TouchEventType type;
-        final int x;
-        final int y;
+    // Where cursor moves and mouse buttons go; the client passes the game's Mouse
+    interface CursorTarget {
+        void moveCursor(double x, double y);
         
-        TouchEvent(TouchEventType type, int x, int y) {
-            this.type = type;
-            this.x = x;
-            this.y = y;
-        }
+        // DispatchMode.MOUSE: a button event at the current cursor position
+        void mouseButton(int button, boolean pressed);
+        
+        // Forget a held button without sending a release (the screen that got the press closed)
+        void cancelButton();
     }
     
-    private enum TouchEventType {
-        LEFT_PRESS,    // Mouse button down
-        LEFT_RELEASE   // Mouse button up
+    // Feeds the game's own GLFW callbacks, as if the events came from a real mouse
+    private static class ClientMouse implements CursorTarget {
+        private final MinecraftClient client;
+        
+        ClientMouse(MinecraftClient client) {
+            this.client = client;
+        }
+        
+        @Override
+        public void moveCursor(double x, double y) {
+            ((MouseMixin) client.mouse).invokeOnCursorPos(client.getWindow().getHandle(), x, y);
+        }
+        
+        @Override
+        public void mouseButton(int button, boolean pressed) {
+            ((MouseMixin) client.mouse).invokeOnMouseButton(client.getWindow().getHandle(), button,
+                pressed ? GLFW.GLFW_PRESS : GLFW.GLFW_RELEASE, 0);
+        }
+        
+        @Override
+        public void cancelButton() {
+            ((MouseMixin) client.mouse).setActiveButton(-1);
+        }
     }
     
     public void reload() {
         LOGGER.info("Reloading TouchInputHandler with new config.. .");
         
-        // Stop the current device reading
-        stop();
-        
-        // Wait a bit for the thread to stop
-        try {
-            Thread. sleep(100);
-        } catch (InterruptedException e) {
-            Thread. currentThread().interrupt();
-        }
+        // Stop the current device reading (or replay) and wait for the thread to exit
+        stopReader();
+        replaying = false;
         
         // Reload config (will pick up saved changes from file)
         TouchConfig newConfig = TouchConfig.load();
         
-        // Copy all values to our config instance
-        this.config. debugCirclesEnabled = newConfig.debugCirclesEnabled;
-        this. config.touchDevicePath = newConfig.touchDevicePath;
-        this.config.autoDetectTouchResolution = newConfig.autoDetectTouchResolution;
-        this. config.touchMaxX = newConfig.touchMaxX;
-        this.config.touchMaxY = newConfig.touchMaxY;
-        this.config. autoDetectScreenResolution = newConfig.autoDetectScreenResolution;
-        this. config.screenWidth = newConfig.screenWidth;
-        this.config.screenHeight = newConfig.screenHeight;
-        this.config.mappingMode = newConfig.mappingMode;
-        this.config.swapXY = newConfig.swapXY;
-        this.config. invertX = newConfig.invertX;
-        this.config.invertY = newConfig.invertY;
-        this.config.autoDetectSystemScale = newConfig.autoDetectSystemScale;
-        this.config. manualSystemScale = newConfig.manualSystemScale;
+        // Copy all values to our config instance, keeping the compiled mappings it doesn't change
+        forgetChangedMappings(newConfig);
+        this.config.copyFrom(newConfig);
+        dropTransform();
         
         // Update debug visualizer
         ClickVisualizer.DEBUG_ENABLED = this.config.debugCirclesEnabled;
         
+        // Start a fresh capture file so it records the new config
+        stopCapture();
+        updateSocketServer();
+        
         // Restart the device reading thread
-        running = true;
-        Thread touchThread = new Thread(() -> {
+        startReader();
+        
+        LOGGER.info("TouchInputHandler reloaded successfully");
+    }
+    
+    // Applies a config read by TouchConfigWatcher. Must run on the client thread so
+    // processTouchEvents never sees a half-copied config.
+    public void applyConfig(TouchConfig newConfig) {
+        if (config.sameSettings(newConfig)) {
+            // Our own save() coming back through the watcher
+            return;
+        }
+        
+        boolean deviceChanged = !config.touchDevicePath.equals(newConfig.touchDevicePath);
+        forgetChangedMappings(newConfig);
+        config.copyFrom(newConfig);
+        dropTransform();
+        ClickVisualizer.DEBUG_ENABLED = config.debugCirclesEnabled;
+        updateSocketServer();
+        
+        if (deviceChanged) {
+            // reload() closes the capture and the new reader opens the next one, so don't start
+            // one here: it would be closed empty and left behind for Replay Last to find
+            LOGGER.info("Touch device changed to {}, reopening", config.touchDevicePath);
+            reload();
+        } else {
+            updateCapture();
+            LOGGER.info("Applied config changes from disk");
+        }
+    }
+    
+    // Starts or stops capturing to match config.captureEnabled
+    public synchronized void updateCapture() {
+        if (config.captureEnabled && capture == null) {
             try {
-                start();
-            } catch (Exception e) {
-                LOGGER.error("Failed to restart touch input handler", e);
+                Path captureDir = getCaptureDirectory();
+                Files.createDirectories(captureDir);
+                Path path = captureDir.resolve("capture-" + LocalDateTime.now().format(CAPTURE_NAME_FORMAT) + ".wtc");
+                capture = new TouchCapture(path, config.toJson());
+            } catch (IOException e) {
+                LOGGER.error("Failed to start touch capture", e);
+            }
+        } else if (!config.captureEnabled && capture != null) {
+            stopCapture();
+        }
+    }
+    
+    private synchronized void stopCapture() {
+        TouchCapture activeCapture = capture;
+        capture = null;
+        if (activeCapture != null) {
+            activeCapture.close();
+        }
+    }
+    
+    // Starts, stops or moves the touch socket to match config.socketEnabled and socketPath
+    public synchronized void updateSocketServer() {
+        Path path = getSocketPath();
+        TouchSocketServer server = socketServer;
+        if (server != null && (!config.socketEnabled || !server.getPath().equals(path))) {
+            stopSocketServer();
+            server = null;
+        }
+        if (config.socketEnabled && server == null) {
+            server = new TouchSocketServer(path, config.socketBufferFrames, this::injectFrame);
+            try {
+                server.start();
+                socketServer = server;
+            } catch (IOException e) {
+                LOGGER.error("Failed to open touch socket {}", path, e);
+            }
+        }
+    }
+    
+    private synchronized void stopSocketServer() {
+        TouchSocketServer server = socketServer;
+        socketServer = null;
+        if (server != null) {
+            server.close();
+        }
+    }
+    
+    public TouchSocketServer getSocketServer() {
+        return socketServer;
+    }
+    
+    private Path getSocketPath() {
+        return config.socketPath.isBlank()
+            ? FabricLoader.getInstance().getGameDir().resolve("wayland-touch-input.sock")
+            : Path.of(config.socketPath);
+    }
+    
+    public static Path getCaptureDirectory() {
+        return FabricLoader.getInstance().getGameDir().resolve("touch-captures");
+    }
+    
+    public static Path findLatestCapture() {
+        try (Stream<Path> files = Files.list(getCaptureDirectory())) {
+            return files
+                .filter(path -> path.getFileName().toString().endsWith(".wtc"))
+                .max(Comparator.comparing(path -> path.toFile().lastModified()))
+                .orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    public boolean isReplaying() {
+        return replaying;
+    }
+    
+    // Feeds a capture through handleInputEvent in place of the device. The settings stored in the
+    // capture are used for the duration of the replay so mapping behaves as it did when recorded.
+    public void startReplay(Path path, boolean realtime) {
+        if (replaying) {
+            LOGGER.warn("A replay is already running");
+            return;
+        }
+        
+        TouchReplay replay;
+        try {
+            replay = new TouchReplay(path);
+        } catch (IOException e) {
+            LOGGER.error("Failed to open capture {}", path, e);
+            return;
+        }
+        
+        TouchConfig savedConfig = new TouchConfig();
+        savedConfig.copyFrom(config);
+        
+        TouchConfig recordedConfig = TouchConfig.fromJson(replay.getConfigJson());
+        if (recordedConfig != null && recordedConfig.validate() == null) {
+            recordedConfig.touchDevicePath = config.touchDevicePath;
+            recordedConfig.captureEnabled = config.captureEnabled;
+            config.copyFrom(recordedConfig);
+            dropTransform();
+        } else {
+            LOGGER.warn("Capture {} has no usable config, replaying with current settings", path);
+        }
+        
+        configBeforeReplay = savedConfig;
+        replaying = true;
+        
+        LOGGER.info("Replaying {} events from {} ({})", replay.getRecordCount(), path,
+            realtime ? "real time" : "as fast as possible");
+        
+        // Replaces the live device reader, so the two streams never interleave
+        readers.start("TouchReplayThread", generation -> runReplay(replay, realtime, generation));
+    }
+    
+    // Must run on the client thread
+    public void stopReplay() {
+        if (replaying) {
+            readers.stop();
+            finishReplay();
+        }
+    }
+    
+    private void finishReplay() {
+        if (!replaying) {
+            return;
+        }
+        config.copyFrom(configBeforeReplay);
+        replaying = false;
+        dropTransform();
+        startReader();
+    }
+    
+    private void runReplay(TouchReplay replay, boolean realtime, int generation) {
+        long startNanos = System.nanoTime();
+        long firstEventMicros = -1;
+        int replayed = 0;
+        resetTouchState();
+        
+        try (replay) {
+            while (readers.isCurrent(generation) && replay.next()) {
+                if (realtime) {
+                    if (firstEventMicros < 0) {
+                        firstEventMicros = replay.timeMicros();
+                    }
+                    long dueNanos = startNanos + (replay.timeMicros() - firstEventMicros) * 1000L;
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                }
+                
+                // Held from a frame's first event to its SYN_REPORT, like the device reader
+                if (!inputLock.isHeldByCurrentThread()) {
+                    inputLock.lock();
+                }
+                handleInputEvent(replay.timeMicros(), replay.type(), replay.code(), replay.value());
+                if (EvdevDecoder.isFrameEnd(replay.type(), replay.code())) {
+                    inputLock.unlock();
+                }
+                replayed++;
             }
-        }, "TouchInputThread-Reloaded");
-        touchThread.setDaemon(true);
-        touchThread.start();
+        } catch (InterruptedException e) {
+            // stopReplay()
+        } catch (Exception e) {
+            LOGGER.error("Replay failed", e);
+        }
         
-        LOGGER.info("TouchInputHandler reloaded successfully");
+        if (inputLock.isHeldByCurrentThread()) {
+            inputLock.unlock();
+        }
+        LOGGER.info("Replay finished: {} events in {} ms", replayed, (System.nanoTime() - startNanos) / 1_000_000);
+        
+        if (readers.isCurrent(generation)) {
+            // Ran to the end: hand the device back to the live reader
+            MinecraftClient.getInstance().execute(this::finishReplay);
+        }
     }
 }
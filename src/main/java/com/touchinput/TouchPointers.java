@@ -0,0 +1,191 @@
+package com.touchinput;
+
+import net.minecraft.client.gui.Element;
+import net.minecraft.client.gui.screen.Screen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Multi-pointer dispatch (TouchConfig.multiPointerEnabled). The primary finger keeps going through
+// the gestures and drives the game's cursor; every other finger is a pointer of its own that
+// presses the widget under it, drags it and releases it, without touching the cursor or the
+// screen's focus. Holding a slider with one finger while pressing a button with another works.
+//
+// State is kept per MT slot in arrays sized once, so ten fingers allocate no more than one.
+// Landings and lifts are queued like presses so none are missed; positions are published by
+// the reader and picked up by the client once per frame.
+public class TouchPointers {
+    private static final Logger LOGGER = LoggerFactory.getLogger("TouchPointers");
+    
+    private static final int SLOTS = TouchSlots.MAX_SLOTS;
+    private static final int BUTTON = GestureRecognizer.BUTTON_LEFT;
+    
+    public interface Listener {
+        void onPointer(long timeMicros, int slot, boolean down, int x, int y);
+    }
+    
+    // Reader side
+    private final boolean[] down = new boolean[SLOTS];
+    private final AtomicLongArray positions = new AtomicLongArray(SLOTS);  // Raw x, y packed
+    
+    // Client side
+    private final Element[] captured = new Element[SLOTS];
+    private final long[] lastPositions = new long[SLOTS];
+    private final int[] lastX = new int[SLOTS];   // Last GUI position sent to the element
+    private final int[] lastY = new int[SLOTS];
+    private final int[] gui = new int[2];
+    private Screen capturedScreen;
+    private int capturedCount = 0;
+    
+    // Reader thread, once per frame. Every live contact except the primary is a pointer; with
+    // enabled false, pointers still down are lifted.
+    public void onFrame(long timeMicros, TouchSlots slots, boolean enabled, Listener listener) {
+        int primary = slots.primarySlot();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            boolean isPointer = enabled && slot != primary && slots.isActive(slot);
+            if (isPointer) {
+                positions.set(slot, pack(slots.x(slot), slots.y(slot)));
+            }
+            if (isPointer != down[slot]) {
+                down[slot] = isPointer;
+                listener.onPointer(timeMicros, slot, isPointer, slots.x(slot), slots.y(slot));
+            }
+        }
+    }
+    
+    // Reader thread, before a new stream of events. Pointers the client holds are dropped
+    // when their slot is pressed again or the screen changes.
+    public void resetReader() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            down[slot] = false;
+        }
+    }
+    
+    // Client thread: presses the element under the pointer. heldElement is what the primary
+    // finger holds, it is never pressed a second time.
+    public void press(Screen screen, int slot, int guiX, int guiY, Element heldElement) {
+        if (captured[slot] != null) {
+            release(slot, lastX[slot], lastY[slot]);
+        }
+        track(screen);
+        Element element = screen.hoveredElement(guiX, guiY).orElse(null);
+        if (element == null || element == heldElement || isCaptured(element)) {
+            return;
+        }
+        try {
+            if (!element.mouseClicked(guiX, guiY, BUTTON)) {
+                return;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to press pointer {}", slot, e);
+            return;
+        }
+        captured[slot] = element;
+        capturedScreen = screen;
+        capturedCount++;
+        lastPositions[slot] = ~positions.get(slot);    // Catch up with the pointer next frame
+        lastX[slot] = guiX;
+        lastY[slot] = guiY;
+        LOGGER.debug("POINTER {} pressed {} at ({}, {})", slot, element.getClass().getSimpleName(), guiX, guiY);
+    }
+    
+    public void release(int slot, int guiX, int guiY) {
+        Element element = captured[slot];
+        if (element == null) {
+            return;
+        }
+        try {
+            if (guiX != lastX[slot] || guiY != lastY[slot]) {
+                send(slot, guiX, guiY);
+            }
+            element.mouseReleased(guiX, guiY, BUTTON);
+        } catch (Exception e) {
+            LOGGER.error("Failed to release pointer {}", slot, e);
+        }
+        clear(slot);
+        LOGGER.debug("POINTER {} released at ({}, {})", slot, guiX, guiY);
+    }
+    
+    // Client thread, once per frame: drags every captured element to its pointer's latest position
+    public void dragAll(TouchTransform transform) {
+        if (capturedCount == 0) {
+            return;
+        }
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (captured[slot] == null) {
+                continue;
+            }
+            long packed = positions.get(slot);
+            if (packed == lastPositions[slot]) {
+                continue;
+            }
+            lastPositions[slot] = packed;
+            transform.toGui((int) (packed >> 32), (int) packed, gui);
+            if (gui[0] != lastX[slot] || gui[1] != lastY[slot]) {
+                try {
+                    send(slot, gui[0], gui[1]);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to drag pointer {}", slot, e);
+                }
+            }
+        }
+    }
+    
+    private void send(int slot, int guiX, int guiY) {
+        Element element = captured[slot];
+        element.mouseMoved(guiX, guiY);
+        element.mouseDragged(guiX, guiY, BUTTON, guiX - lastX[slot], guiY - lastY[slot]);
+        lastX[slot] = guiX;
+        lastY[slot] = guiY;
+    }
+    
+    // Drops every pointer once the screen they were pressed on has closed
+    public void track(Screen currentScreen) {
+        if (capturedCount > 0 && capturedScreen != currentScreen) {
+            reset();
+        }
+    }
+    
+    // Releases every pointer on its element (the touch session was taken over)
+    public void releaseAll() {
+        for (int slot = 0; slot < SLOTS && capturedCount > 0; slot++) {
+            if (captured[slot] != null) {
+                release(slot, lastX[slot], lastY[slot]);
+            }
+        }
+    }
+    
+    // Forgets every pointer without releasing it
+    public void reset() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            captured[slot] = null;
+        }
+        capturedCount = 0;
+        capturedScreen = null;
+    }
+    
+    public int getCapturedCount() {
+        return capturedCount;
+    }
+    
+    private boolean isCaptured(Element element) {
+        for (int slot = 0; slot < SLOTS && capturedCount > 0; slot++) {
+            if (captured[slot] == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void clear(int slot) {
+        captured[slot] = null;
+        if (--capturedCount == 0) {
+            capturedScreen = null;
+        }
+    }
+    
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -1,12 +1,17 @@
 package com.touchinput;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.rendering.v1.hud.HudElementRegistry;
+import net.fabricmc.fabric.api.client.rendering.v1.hud.VanillaHudElements;
 import net.fabricmc.fabric.api.client.screen.v1.ScreenEvents;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
+import net.minecraft.util.Identifier;
 import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,28 +21,33 @@ public class WaylandTouchInput implements ClientModInitializer {
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
     
     private static TouchInputHandler touchHandler;
+    private static TouchConfigWatcher configWatcher;
     private static KeyBinding configKeyBinding;
 
     @Override
     public void onInitializeClient() {
         LOGGER.info("Initializing Wayland Touch Input mod");
+        TouchConfig.setConfigPath(FabricLoader.getInstance().getConfigDir().resolve("wayland-touch-input.json"));
         
-        // Initialize touch input handler
-        touchHandler = new TouchInputHandler();
+        // Initialize touch input handler. The config is loaded and the device looked up in
+        // the background; touch input goes live once both are done.
+        touchHandler = new TouchInputHandler(new TouchConfig());
         
-        // Set initial debug state
-        ClickVisualizer.DEBUG_ENABLED = touchHandler.getConfig().debugCirclesEnabled;
+        // Screen touch handlers from other mods
+        touchHandler.getTouchHandlers().loadEntrypoints();
         
-        // Start touch input thread
-        Thread touchThread = new Thread(() -> {
-            try {
-                touchHandler.start();
-            } catch (Exception e) {
-                LOGGER.error("Failed to start touch input handler", e);
-            }
-        }, "TouchInputThread");
-        touchThread.setDaemon(true);
-        touchThread.start();
+        configWatcher = new TouchConfigWatcher(TouchConfig.getConfigPath(), newConfig ->
+            MinecraftClient.getInstance().execute(() -> touchHandler.applyConfig(newConfig)));
+        touchHandler.startAsync().thenRun(() -> {
+            LOGGER.info("Config loaded: debugCircles={}, touchDevice={}, screenRes={}x{}",
+                touchHandler.getConfig().debugCirclesEnabled,
+                touchHandler.getConfig().touchDevicePath,
+                touchHandler.getConfig().screenWidth,
+                touchHandler.getConfig().screenHeight);
+            
+            // Pick up config files rewritten by hand or by deployment tools
+            configWatcher.start();
+        });
         
         // Register keybinding for config screen (Right Control + T)
 configKeyBinding = KeyBindingHelper.registerKeyBinding(new KeyBinding(
@@ -49,7 +59,13 @@ configKeyBinding = KeyBindingHelper.registerKeyBinding(new KeyBinding(
         // Register tick event to process touch events and check keybinding
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             if (client != null && touchHandler != null) {
-                touchHandler.processTouchEvents(client);
+                // Screens are handled once per rendered frame, see AFTER_INIT
+                if (client.currentScreen == null) {
+                    touchHandler.processTouchEvents(client);
+                } else {
+                    // A minimized window renders no frames, notice it here
+                    touchHandler.updateInputState(client);
+                }
                 
                 // Check if config key was pressed
                 while (configKeyBinding.wasPressed()) {
@@ -58,21 +74,30 @@ configKeyBinding = KeyBindingHelper.registerKeyBinding(new KeyBinding(
             }
         });
         
+        // Stop the reader, capture and watcher before the game exits
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+            configWatcher.stop();
+            touchHandler.shutdown();
+        });
+        
+        // Mark the HUD zones that have nothing of the game's own drawn under them
+        HudElementRegistry.attachElementAfter(VanillaHudElements.HOTBAR, Identifier.of("wayland-touch-input", "hud_zones"),
+            (context, tickCounter) -> touchHandler.drawHudZones(MinecraftClient.getInstance(), context));
+        
         // Register screen open event
         ScreenEvents.AFTER_INIT.register((client, screen, scaledWidth, scaledHeight) -> {
             if (touchHandler != null) {
                 touchHandler.onScreenOpen(screen);
+                
+                // Dispatch touch input every frame rather than every tick, so drags and
+                // scrolling move as smoothly as the screen renders
+                ScreenEvents.beforeRender(screen).register((renderedScreen, context, mouseX, mouseY, tickDelta) ->
+                    touchHandler.processTouchEvents(client));
             }
         });
         
         LOGGER.info("Wayland Touch Input mod initialized successfully");
         LOGGER.info("Press Right Ctrl + T to open config screen");
-        
-        LOGGER.info("Config loaded: debugCircles={}, touchDevice={}, screenRes={}x{}", 
-    touchHandler.getConfig().debugCirclesEnabled,
-    touchHandler.getConfig().touchDevicePath,
-    touchHandler.getConfig().screenWidth,
-    touchHandler.getConfig().screenHeight);
     }
     
     public static TouchInputHandler getTouchHandler() {
@@ -80,7 +105,7 @@ configKeyBinding = KeyBindingHelper.registerKeyBinding(new KeyBinding(
     }
     
     public static void openConfigScreen(MinecraftClient client) {
-        TouchConfig config = touchHandler != null ? touchHandler.getConfig() : TouchConfig.load();
+        TouchConfig config = touchHandler != null && touchHandler.isReady() ? touchHandler.getConfig() : TouchConfig.load();
         client.setScreen(new TouchConfigScreen(client.currentScreen, config));
     }
 }
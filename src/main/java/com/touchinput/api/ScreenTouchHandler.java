@@ -0,0 +1,14 @@
+package com.touchinput.api;
+
+import net.minecraft.client.gui.screen.Screen;
+
+// Receives every touch frame while a screen it was registered for is open, on the client
+// thread, before the mod's own gesture handling sees it.
+//
+// Returning true consumes the frame and the rest of its touch session (until every finger is
+// up): the default handling gets nothing more from it and lets go of anything it had pressed.
+// Returning false passes the frame through.
+@FunctionalInterface
+public interface ScreenTouchHandler {
+    boolean onTouchFrame(Screen screen, TouchFrame frame);
+}
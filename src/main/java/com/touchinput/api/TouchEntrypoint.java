@@ -0,0 +1,13 @@
+package com.touchinput.api;
+
+// Entrypoint for mods that handle touch on their own screens. Declare the implementing class
+// in fabric.mod.json:
+//
+//   "entrypoints": { "wayland-touch-input": [ "com.example.ExampleTouchSupport" ] }
+//
+// It is called once on the client thread while the mod initializes.
+public interface TouchEntrypoint {
+    String KEY = "wayland-touch-input";
+    
+    void registerTouchHandlers(TouchHandlerRegistry registry);
+}
@@ -0,0 +1,79 @@
+package com.touchinput.api;
+
+// All contacts down at the end of one device frame (an evdev SYN_REPORT). A frame with no
+// pointers means the last finger lifted.
+//
+// Pointer ids are the device's multi-touch slots: a finger keeps its id from touch down to
+// lift, and a lifted finger's id may be reused by the next one. Raw positions are in device
+// units, GUI positions in the screen's coordinates (what mouseClicked receives).
+//
+// The input handler reuses one TouchFrame and its arrays for every frame, so a frame is only
+// valid during the onTouchFrame call it was passed to. Copy out whatever has to be kept.
+public final class TouchFrame {
+    private final int[] ids;
+    private final int[] rawX;
+    private final int[] rawY;
+    private final int[] guiX;
+    private final int[] guiY;
+    private long timeMicros;
+    private int session;
+    private int count;
+    private int primary;
+    
+    // Views the caller's arrays, which it fills before each set(); sized for the most pointers a frame has
+    public TouchFrame(int[] ids, int[] rawX, int[] rawY, int[] guiX, int[] guiY) {
+        this.ids = ids;
+        this.rawX = rawX;
+        this.rawY = rawY;
+        this.guiX = guiX;
+        this.guiY = guiY;
+    }
+    
+    // Starts the next frame: the first count entries of the arrays are its pointers
+    public TouchFrame set(long timeMicros, int session, int count, int primary) {
+        this.timeMicros = timeMicros;
+        this.session = session;
+        this.count = count;
+        this.primary = primary;
+        return this;
+    }
+    
+    // Kernel timestamp of the frame
+    public long getTimeMicros() {
+        return timeMicros;
+    }
+    
+    // Increases whenever a first finger lands; all frames until every finger is up share it
+    public int getSession() {
+        return session;
+    }
+    
+    public int getPointerCount() {
+        return count;
+    }
+    
+    public int getPointerId(int index) {
+        return ids[index];
+    }
+    
+    public int getRawX(int index) {
+        return rawX[index];
+    }
+    
+    public int getRawY(int index) {
+        return rawY[index];
+    }
+    
+    public int getGuiX(int index) {
+        return guiX[index];
+    }
+    
+    public int getGuiY(int index) {
+        return guiY[index];
+    }
+    
+    // The session's first finger, while it is down
+    public boolean isPrimary(int index) {
+        return ids[index] == primary;
+    }
+}
@@ -0,0 +1,15 @@
+package com.touchinput.api;
+
+import net.minecraft.client.gui.screen.Screen;
+
+import java.util.function.Predicate;
+
+// Where TouchEntrypoint implementations register their handlers. When several registrations
+// match a screen, the first one registered wins.
+public interface TouchHandlerRegistry {
+    // Screens of this class and its subclasses
+    void register(Class<? extends Screen> screenClass, ScreenTouchHandler handler);
+    
+    // Screens the predicate accepts. It is tested once when the screen opens, not per frame.
+    void register(Predicate<Screen> predicate, ScreenTouchHandler handler);
+}
@@ -0,0 +1,20 @@
+package com.touchinput.mixin;
+
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.screen.slot.Slot;
+import net.minecraft.screen.slot.SlotActionType;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+@Mixin(HandledScreen.class)
+public interface HandledScreenMixin {
+    @Accessor("x")
+    int getOriginX();
+    
+    @Accessor("y")
+    int getOriginY();
+    
+    @Invoker("onMouseClick")
+    void invokeOnMouseClick(Slot slot, int slotId, int button, SlotActionType actionType);
+}
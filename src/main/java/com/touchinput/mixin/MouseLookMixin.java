@@ -0,0 +1,29 @@
+package com.touchinput.mixin;
+
+import com.touchinput.TouchInputHandler;
+import com.touchinput.WaylandTouchInput;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.Mouse;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Mouse.class)
+public class MouseLookMixin {
+    @Shadow @Final private MinecraftClient client;
+    @Shadow private double cursorDeltaX;
+    @Shadow private double cursorDeltaY;
+    
+    @Inject(method = "updateMouse", at = @At("HEAD"))
+    private void onUpdateMouse(double timeDelta, CallbackInfo ci) {
+        // Add touch look to this frame's mouse movement, before the game turns it into rotation
+        TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+        if (handler != null && handler.updateTouchLook(client)) {
+            cursorDeltaX += handler.getLookDeltaX();
+            cursorDeltaY += handler.getLookDeltaY();
+        }
+    }
+}
@@ -2,10 +2,17 @@ package com.touchinput.mixin;
 
 import net.minecraft.client.Mouse;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
 import org.spongepowered.asm.mixin.gen.Invoker;
 
 @Mixin(Mouse.class)
 public interface MouseMixin {
     @Invoker("onCursorPos")
     void invokeOnCursorPos(long window, double x, double y);
+    
+    @Invoker("onMouseButton")
+    void invokeOnMouseButton(long window, int button, int action, int mods);
+    
+    @Accessor("activeButton")
+    void setActiveButton(int activeButton);
 }
@@ -0,0 +1,21 @@
+package com.touchinput.mixin;
+
+import com.touchinput.TouchInputHandler;
+import com.touchinput.WaylandTouchInput;
+import net.minecraft.client.MinecraftClient;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(MinecraftClient.class)
+public class ResolutionChangeMixin {
+    @Inject(method = "onResolutionChanged", at = @At("TAIL"))
+    private void onResolutionChanged(CallbackInfo ci) {
+        // Runs after a framebuffer resize or GUI scale change, once the new scale factor is set
+        TouchInputHandler handler = WaylandTouchInput.getTouchHandler();
+        if (handler != null) {
+            handler.invalidateAllTransforms();
+        }
+    }
+}